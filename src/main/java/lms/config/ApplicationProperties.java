@@ -1,5 +1,8 @@
 package lms.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import lms.service.RowCountService;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +13,506 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Repository repository = new Repository();
+
+    private final Security security = new Security();
+
+    private final Mail mail = new Mail();
+
+    private final UserPurge userPurge = new UserPurge();
+
+    private final RowCount rowCount = new RowCount();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
     // jhipster-needle-application-properties-property
 
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public UserPurge getUserPurge() {
+        return userPurge;
+    }
+
+    public RowCount getRowCount() {
+        return rowCount;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    public static class Repository {
+
+        /**
+         * Maximum number of rendered SQL statements kept by the EntityManager.
+         */
+        private int statementCacheSize = 256;
+
+        /**
+         * Whether parameterized statements are prepared on the MySQL server, so they are parsed once per connection.
+         */
+        private boolean serverPreparedStatements = true;
+
+        /**
+         * Maximum number of server prepared statements kept per connection.
+         */
+        private int preparedStatementCacheSize = 256;
+
+        /**
+         * Number of rows fetched from the database at a time by streaming queries, such as the exports.
+         */
+        private int streamFetchSize = 500;
+
+        /**
+         * Number of entities saved per statement and transaction by the bulk endpoints.
+         */
+        private int bulkBatchSize = 500;
+
+        /**
+         * Maximum time waited at startup for the initial connections of the pool, before the instance is ready anyway.
+         */
+        private int poolWarmupTimeoutSeconds = 30;
+
+        /**
+         * Number of requests waiting for a connection of the pool, beyond which the instance is reported not ready.
+         */
+        private int poolReadinessMaxPendingAcquires = 100;
+
+        public int getStatementCacheSize() {
+            return statementCacheSize;
+        }
+
+        public void setStatementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+        }
+
+        public boolean isServerPreparedStatements() {
+            return serverPreparedStatements;
+        }
+
+        public void setServerPreparedStatements(boolean serverPreparedStatements) {
+            this.serverPreparedStatements = serverPreparedStatements;
+        }
+
+        public int getPreparedStatementCacheSize() {
+            return preparedStatementCacheSize;
+        }
+
+        public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+            this.preparedStatementCacheSize = preparedStatementCacheSize;
+        }
+
+        public int getStreamFetchSize() {
+            return streamFetchSize;
+        }
+
+        public void setStreamFetchSize(int streamFetchSize) {
+            this.streamFetchSize = streamFetchSize;
+        }
+
+        public int getBulkBatchSize() {
+            return bulkBatchSize;
+        }
+
+        public void setBulkBatchSize(int bulkBatchSize) {
+            this.bulkBatchSize = bulkBatchSize;
+        }
+
+        public int getPoolWarmupTimeoutSeconds() {
+            return poolWarmupTimeoutSeconds;
+        }
+
+        public void setPoolWarmupTimeoutSeconds(int poolWarmupTimeoutSeconds) {
+            this.poolWarmupTimeoutSeconds = poolWarmupTimeoutSeconds;
+        }
+
+        public int getPoolReadinessMaxPendingAcquires() {
+            return poolReadinessMaxPendingAcquires;
+        }
+
+        public void setPoolReadinessMaxPendingAcquires(int poolReadinessMaxPendingAcquires) {
+            this.poolReadinessMaxPendingAcquires = poolReadinessMaxPendingAcquires;
+        }
+    }
+
+    public static class Security {
+
+        /**
+         * Time to live of the cached user details, used to authenticate the users without querying the database.
+         */
+        private int userCacheTimeToLiveSeconds = 300;
+
+        /**
+         * Maximum number of cached user details, per lookup by login and by email.
+         */
+        private long userCacheMaxEntries = 10000;
+
+        /**
+         * Number of threads hashing passwords, by default one per CPU.
+         */
+        private int passwordHashingThreads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of password hashing operations waiting for a thread, beyond which they are rejected with a 503.
+         */
+        private int passwordHashingQueueCapacity = 100;
+
+        /**
+         * Cost of the BCrypt password hashes, as the log2 of the number of rounds. The hashes of a lower cost are
+         * upgraded when their users log in.
+         */
+        private int bcryptStrength = 10;
+
+        /**
+         * Maximum number of verified tokens kept until they expire, so they are not verified on every request.
+         */
+        private long tokenCacheMaxEntries = 10000;
+
+        public int getUserCacheTimeToLiveSeconds() {
+            return userCacheTimeToLiveSeconds;
+        }
+
+        public void setUserCacheTimeToLiveSeconds(int userCacheTimeToLiveSeconds) {
+            this.userCacheTimeToLiveSeconds = userCacheTimeToLiveSeconds;
+        }
+
+        public long getUserCacheMaxEntries() {
+            return userCacheMaxEntries;
+        }
+
+        public void setUserCacheMaxEntries(long userCacheMaxEntries) {
+            this.userCacheMaxEntries = userCacheMaxEntries;
+        }
+
+        public int getPasswordHashingThreads() {
+            return passwordHashingThreads;
+        }
+
+        public void setPasswordHashingThreads(int passwordHashingThreads) {
+            this.passwordHashingThreads = passwordHashingThreads;
+        }
+
+        public int getPasswordHashingQueueCapacity() {
+            return passwordHashingQueueCapacity;
+        }
+
+        public void setPasswordHashingQueueCapacity(int passwordHashingQueueCapacity) {
+            this.passwordHashingQueueCapacity = passwordHashingQueueCapacity;
+        }
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(int bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+
+        public long getTokenCacheMaxEntries() {
+            return tokenCacheMaxEntries;
+        }
+
+        public void setTokenCacheMaxEntries(long tokenCacheMaxEntries) {
+            this.tokenCacheMaxEntries = tokenCacheMaxEntries;
+        }
+    }
+
+    public static class Mail {
+
+        /**
+         * Maximum number of emails waiting to be sent, beyond which new emails are dropped.
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Number of threads sending the emails.
+         */
+        private int workers = 2;
+
+        /**
+         * Maximum number of emails sent over one SMTP connection.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Maximum number of emails sent per second, or 0 for no limit.
+         */
+        private int rateLimitPerSecond = 0;
+
+        /**
+         * Number of times an email is sent before it is dropped, the first time included.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Delay before sending a failed email again, doubled on each attempt.
+         */
+        private long retryBackoffMillis = 5000;
+
+        /**
+         * Languages for which the email templates are warmed up at startup.
+         */
+        private List<String> templateLanguages = List.of("en");
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getRateLimitPerSecond() {
+            return rateLimitPerSecond;
+        }
+
+        public void setRateLimitPerSecond(int rateLimitPerSecond) {
+            this.rateLimitPerSecond = rateLimitPerSecond;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getRetryBackoffMillis() {
+            return retryBackoffMillis;
+        }
+
+        public void setRetryBackoffMillis(long retryBackoffMillis) {
+            this.retryBackoffMillis = retryBackoffMillis;
+        }
+
+        public List<String> getTemplateLanguages() {
+            return templateLanguages;
+        }
+
+        public void setTemplateLanguages(List<String> templateLanguages) {
+            this.templateLanguages = templateLanguages;
+        }
+    }
+
+    public static class UserPurge {
+
+        /**
+         * Number of days after which the users not activated are deleted.
+         */
+        private int notActivatedRetentionDays = 3;
+
+        /**
+         * Number of users deleted per statement and transaction.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Pause between two batches, so the purge does not monopolize the database.
+         */
+        private long pauseMillis = 100;
+
+        /**
+         * Time after which a node that stopped renewing its lease, e.g. because it crashed, is replaced by another one.
+         */
+        private int leaseSeconds = 300;
+
+        public int getNotActivatedRetentionDays() {
+            return notActivatedRetentionDays;
+        }
+
+        public void setNotActivatedRetentionDays(int notActivatedRetentionDays) {
+            this.notActivatedRetentionDays = notActivatedRetentionDays;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPauseMillis() {
+            return pauseMillis;
+        }
+
+        public void setPauseMillis(long pauseMillis) {
+            this.pauseMillis = pauseMillis;
+        }
+
+        public int getLeaseSeconds() {
+            return leaseSeconds;
+        }
+
+        public void setLeaseSeconds(int leaseSeconds) {
+            this.leaseSeconds = leaseSeconds;
+        }
+    }
+
+    public static class RowCount {
+
+        /**
+         * Time for which the cached counts are served, adjusted by the rows created and deleted meanwhile.
+         */
+        private int cacheTimeToLiveSeconds = 10;
+
+        /**
+         * Time for which the approximate counts are served, adjusted by the rows created and deleted meanwhile.
+         */
+        private int approximateTimeToLiveSeconds = 60;
+
+        /**
+         * How the total count of the users listed to the administrators is computed.
+         */
+        private RowCountService.Mode adminUsers = RowCountService.Mode.CACHED;
+
+        /**
+         * How the total count of the public listing of the users is computed.
+         */
+        private RowCountService.Mode publicUsers = RowCountService.Mode.CACHED;
+
+        public int getCacheTimeToLiveSeconds() {
+            return cacheTimeToLiveSeconds;
+        }
+
+        public void setCacheTimeToLiveSeconds(int cacheTimeToLiveSeconds) {
+            this.cacheTimeToLiveSeconds = cacheTimeToLiveSeconds;
+        }
+
+        public int getApproximateTimeToLiveSeconds() {
+            return approximateTimeToLiveSeconds;
+        }
+
+        public void setApproximateTimeToLiveSeconds(int approximateTimeToLiveSeconds) {
+            this.approximateTimeToLiveSeconds = approximateTimeToLiveSeconds;
+        }
+
+        public RowCountService.Mode getAdminUsers() {
+            return adminUsers;
+        }
+
+        public void setAdminUsers(RowCountService.Mode adminUsers) {
+            this.adminUsers = adminUsers;
+        }
+
+        public RowCountService.Mode getPublicUsers() {
+            return publicUsers;
+        }
+
+        public void setPublicUsers(RowCountService.Mode publicUsers) {
+            this.publicUsers = publicUsers;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        /**
+         * R2DBC URLs of the read replicas, which serve the read-only transactions. None by default.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * Login of the replicas, by default the one of the primary.
+         */
+        private String username;
+
+        /**
+         * Password of the replicas, by default the one of the primary.
+         */
+        private String password;
+
+        /**
+         * How the replica of a read-only transaction is chosen.
+         */
+        private ReadWriteRoutingConnectionFactory.Balancing balancing = ReadWriteRoutingConnectionFactory.Balancing.LEAST_PENDING;
+
+        /**
+         * Maximum replication lag of the replicas used, beyond which the read-only transactions go to the primary.
+         */
+        private int maxLagSeconds = 5;
+
+        /**
+         * Interval between two checks of the replication lag, or 0 to use the replicas without checking it.
+         */
+        private int lagCheckIntervalSeconds = 5;
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public ReadWriteRoutingConnectionFactory.Balancing getBalancing() {
+            return balancing;
+        }
+
+        public void setBalancing(ReadWriteRoutingConnectionFactory.Balancing balancing) {
+            this.balancing = balancing;
+        }
+
+        public int getMaxLagSeconds() {
+            return maxLagSeconds;
+        }
+
+        public void setMaxLagSeconds(int maxLagSeconds) {
+            this.maxLagSeconds = maxLagSeconds;
+        }
+
+        public int getLagCheckIntervalSeconds() {
+            return lagCheckIntervalSeconds;
+        }
+
+        public void setLagCheckIntervalSeconds(int lagCheckIntervalSeconds) {
+            this.lagCheckIntervalSeconds = lagCheckIntervalSeconds;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
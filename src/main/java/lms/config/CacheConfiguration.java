@@ -0,0 +1,70 @@
+package lms.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import lms.repository.AuthorityRepository;
+import lms.repository.CoursesRepository;
+import lms.repository.StudentRepository;
+import lms.repository.UserRepository;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * In-process caches, backed by Caffeine.
+ * <p>
+ * The caches run in async mode, so {@code @Cacheable(sync = true)} methods returning a {@link reactor.core.publisher.Mono}
+ * are cached without blocking, and concurrent misses on the same key share a single load.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private final JHipsterProperties.Cache.Caffeine caffeineProperties;
+
+    private final ApplicationProperties.Security securityProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.caffeineProperties = jHipsterProperties.getCache().getCaffeine();
+        this.securityProperties = applicationProperties.getSecurity();
+    }
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(
+            Caffeine.newBuilder()
+                .maximumSize(caffeineProperties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(caffeineProperties.getTimeToLiveSeconds()))
+                .recordStats()
+        );
+        cacheManager.setAsyncCacheMode(true);
+        // Missing entities are not cached, so creating them does not need an eviction
+        cacheManager.setAllowNullValues(false);
+        // Declare the caches up front, so they are bound to the metrics registry at startup
+        cacheManager.setCacheNames(
+            List.of(
+                CoursesRepository.COURSES_BY_ID_CACHE,
+                StudentRepository.STUDENTS_BY_ID_CACHE,
+                AuthorityRepository.AUTHORITY_NAMES_CACHE
+            )
+        );
+        // Users changed by another instance are not evicted here, so the user entries expire sooner than the entities
+        cacheManager.registerCustomCache(UserRepository.USERS_BY_LOGIN_CACHE, userCache());
+        cacheManager.registerCustomCache(UserRepository.USERS_BY_EMAIL_CACHE, userCache());
+        return cacheManager;
+    }
+
+    private AsyncCache<Object, Object> userCache() {
+        return Caffeine.newBuilder()
+            .maximumSize(securityProperties.getUserCacheMaxEntries())
+            .expireAfterWrite(Duration.ofSeconds(securityProperties.getUserCacheTimeToLiveSeconds()))
+            .recordStats()
+            .buildAsync();
+    }
+}
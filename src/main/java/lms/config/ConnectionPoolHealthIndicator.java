@@ -0,0 +1,45 @@
+package lms.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Health of the pool of database connections, part of the readiness group.
+ * <p>
+ * The pool is saturated when all its connections are acquired. The instance is reported out of service once more than
+ * the configured number of requests wait for a connection, so the load balancer sends the new requests elsewhere until
+ * the queue drains, rather than letting them time out here.
+ */
+public class ConnectionPoolHealthIndicator extends AbstractHealthIndicator {
+
+    private final ConnectionPool pool;
+
+    private final int maxPendingAcquires;
+
+    public ConnectionPoolHealthIndicator(ConnectionPool pool, int maxPendingAcquires) {
+        super("Connection pool health check failed");
+        this.pool = pool;
+        this.maxPendingAcquires = maxPendingAcquires;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        PoolMetrics metrics = pool.getMetrics().orElse(null);
+        if (metrics == null) {
+            builder.unknown();
+            return;
+        }
+        int pending = metrics.pendingAcquireSize();
+        builder
+            .status(pending > maxPendingAcquires ? Status.OUT_OF_SERVICE : Status.UP)
+            .withDetail("acquired", metrics.acquiredSize())
+            .withDetail("idle", metrics.idleSize())
+            .withDetail("pending", pending)
+            .withDetail("maxSize", metrics.getMaxAllocatedSize())
+            .withDetail("saturation", (double) metrics.acquiredSize() / metrics.getMaxAllocatedSize())
+            .withDetail("maxPending", maxPendingAcquires);
+    }
+}
@@ -1,6 +1,12 @@
 package lms.config;
 
+import io.asyncer.r2dbc.mysql.MySqlConnectionFactoryProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -10,6 +16,16 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -30,6 +46,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
+
     /**
      * Simple singleton to convert {@link UUID}s to their {@link String} representation.
      */
@@ -73,6 +91,133 @@ public class DatabaseConfiguration {
         return R2dbcCustomConversions.of(dialect, converters);
     }
 
+    /**
+     * Let r2dbc-mysql prepare parameterized statements on the server and cache them per connection, so statements that only
+     * differ in their bound values are parsed once instead of on every execution.
+     */
+    @Bean
+    public ConnectionFactoryOptionsBuilderCustomizer preparedStatementsCustomizer(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Repository properties = applicationProperties.getRepository();
+        return builder -> {
+            if (properties.isServerPreparedStatements()) {
+                builder
+                    .option(MySqlConnectionFactoryProvider.USE_SERVER_PREPARE_STATEMENT, true)
+                    .option(MySqlConnectionFactoryProvider.PREPARE_CACHE_SIZE, properties.getPreparedStatementCacheSize());
+            }
+        };
+    }
+
+    /**
+     * Records the time spent acquiring connections from the pool created by Spring Boot, configured by the
+     * {@code spring.r2dbc.pool} properties, and routes the read-only transactions to the read replicas, if any.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolPostProcessor(
+        ObjectProvider<MeterRegistry> meterRegistry,
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<R2dbcProperties> r2dbcProperties,
+        ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionPool pool)) {
+                    return bean;
+                }
+                MeteredConnectionPool primary = new MeteredConnectionPool(pool, beanName, meterRegistry.getObject());
+                ApplicationProperties.ReadReplicas replicas = applicationProperties.getObject().getReadReplicas();
+                if (replicas.getUrls().isEmpty()) {
+                    return primary;
+                }
+                List<ConnectionFactoryOptionsBuilderCustomizer> optionsCustomizers = customizers.orderedStream().toList();
+                List<ConnectionPool> replicaPools = replicas
+                    .getUrls()
+                    .stream()
+                    .map(url -> replicaPool(url, replicas, r2dbcProperties.getObject(), optionsCustomizers))
+                    .toList();
+                return new ReadWriteRoutingConnectionFactory(
+                    primary,
+                    replicaPools,
+                    replicas.getBalancing(),
+                    Duration.ofSeconds(replicas.getMaxLagSeconds()),
+                    Duration.ofSeconds(replicas.getLagCheckIntervalSeconds()),
+                    meterRegistry.getObject()
+                );
+            }
+        };
+    }
+
+    /**
+     * Creates the pool of a read replica, with the same options and pool settings as the primary.
+     */
+    private static ConnectionPool replicaPool(
+        String url,
+        ApplicationProperties.ReadReplicas replicas,
+        R2dbcProperties r2dbcProperties,
+        List<ConnectionFactoryOptionsBuilderCustomizer> customizers
+    ) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map
+            .from(replicas.getUsername() != null ? replicas.getUsername() : r2dbcProperties.getUsername())
+            .to(username -> options.option(ConnectionFactoryOptions.USER, username));
+        map
+            .from(replicas.getPassword() != null ? replicas.getPassword() : r2dbcProperties.getPassword())
+            .to(password -> options.option(ConnectionFactoryOptions.PASSWORD, password));
+        customizers.forEach(customizer -> customizer.customize(options));
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()));
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        return new ConnectionPool(builder.build());
+    }
+
+    @Bean
+    public RoutingR2dbcTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new RoutingR2dbcTransactionManager(connectionFactory);
+    }
+
+    /**
+     * Opens the initial connections of the pool before the instance is ready, so the first requests do not wait for the
+     * connection handshakes. The runners are called before the readiness state is changed to accepting traffic.
+     */
+    @Bean
+    public ApplicationRunner connectionPoolWarmup(ConnectionFactory connectionFactory, ApplicationProperties applicationProperties) {
+        Duration timeout = Duration.ofSeconds(applicationProperties.getRepository().getPoolWarmupTimeoutSeconds());
+        return args -> {
+            List<ConnectionPool> pools = new ArrayList<>();
+            MeteredConnectionPool.findPool(connectionFactory).ifPresent(pools::add);
+            if (connectionFactory instanceof ReadWriteRoutingConnectionFactory routing) {
+                pools.addAll(routing.getReplicaPools());
+            }
+            pools.forEach(pool -> {
+                long start = System.nanoTime();
+                try {
+                    Integer connections = pool.warmup().block(timeout);
+                    log.info("Opened {} connections to the database in {} ms", connections, (System.nanoTime() - start) / 1_000_000);
+                } catch (RuntimeException e) {
+                    log.warn("Could not open the initial connections to the database, they will be opened on demand", e);
+                }
+            });
+        };
+    }
+
+    @Bean
+    public HealthIndicator connectionPoolHealthIndicator(ConnectionFactory connectionFactory, ApplicationProperties applicationProperties) {
+        int maxPendingAcquires = applicationProperties.getRepository().getPoolReadinessMaxPendingAcquires();
+        return MeteredConnectionPool.findPool(connectionFactory)
+            .<HealthIndicator>map(pool -> new ConnectionPoolHealthIndicator(pool, maxPendingAcquires))
+            .orElse(() -> Health.unknown().withDetail("pooled", false).build());
+    }
+
     @Bean
     public R2dbcDialect dialect(ConnectionFactory connectionFactory) {
         return DialectResolver.getDialect(connectionFactory);
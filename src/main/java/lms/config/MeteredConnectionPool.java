@@ -0,0 +1,109 @@
+package lms.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Wrapped;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ConnectionPool} recording the time spent acquiring the connections, as a histogram, by outcome.
+ * <p>
+ * The sizes of the pool are published by the metrics of Spring Boot, which find the pool through {@link #unwrap()}.
+ */
+public class MeteredConnectionPool implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable, Closeable {
+
+    public static final String ACQUIRE_METER_NAME = "r2dbc.pool.acquire";
+    public static final String ACQUIRE_METER_DESCRIPTION =
+        "Time spent acquiring a connection from the pool, waiting for one to be released or created included.";
+    public static final String ACQUIRE_METER_POOL_DIMENSION = "name";
+    public static final String ACQUIRE_METER_OUTCOME_DIMENSION = "outcome";
+
+    private final ConnectionPool delegate;
+
+    private final Timer acquiredTimer;
+
+    private final Timer timedOutTimer;
+
+    private final Timer failedTimer;
+
+    public MeteredConnectionPool(ConnectionPool delegate, String name, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.acquiredTimer = timerForOutcome(name, "success").register(registry);
+        this.timedOutTimer = timerForOutcome(name, "timeout").register(registry);
+        this.failedTimer = timerForOutcome(name, "error").register(registry);
+    }
+
+    private static Timer.Builder timerForOutcome(String name, String outcome) {
+        return Timer.builder(ACQUIRE_METER_NAME)
+            .description(ACQUIRE_METER_DESCRIPTION)
+            .tag(ACQUIRE_METER_POOL_DIMENSION, name)
+            .tag(ACQUIRE_METER_OUTCOME_DIMENSION, outcome)
+            .publishPercentileHistogram();
+    }
+
+    /**
+     * Finds the pool behind the given connection factory.
+     *
+     * @param connectionFactory the connection factory, possibly wrapping a pool.
+     * @return the pool, or empty if the connections are not pooled.
+     */
+    public static Optional<ConnectionPool> findPool(ConnectionFactory connectionFactory) {
+        Object candidate = connectionFactory;
+        while (candidate != null) {
+            if (candidate instanceof ConnectionPool pool) {
+                return Optional.of(pool);
+            }
+            candidate = candidate instanceof Wrapped<?> wrapped ? wrapped.unwrap() : null;
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return delegate
+                .create()
+                .doOnSuccess(connection -> sample.stop(acquiredTimer))
+                .doOnError(e -> sample.stop(isTimeout(e) ? timedOutTimer : failedTimer));
+        });
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        return e instanceof R2dbcTimeoutException || e instanceof TimeoutException;
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return delegate.close();
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+}
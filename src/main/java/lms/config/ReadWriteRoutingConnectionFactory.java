@@ -0,0 +1,258 @@
+package lms.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * {@link ConnectionFactory} sending the read-only transactions to the read replicas, and everything else to the primary.
+ * <p>
+ * The transactions are marked read-only in the Reactor context by {@link RoutingR2dbcTransactionManager} while their
+ * connection is acquired. Work outside of a transaction goes to the primary, as it may write. The replica is chosen
+ * among the available ones, either in turn or by the fewest requests waiting for a connection.
+ * <p>
+ * A replica is available once its replication lag has been checked to be within the configured maximum, and until a
+ * later check finds it lagging, stopped or unreachable. A replica failing to provide a connection is unavailable until
+ * the next check. Without available replica, the read-only transactions go to the primary. A server not reporting any
+ * replication status, such as the readers of a managed cluster, is considered up to date.
+ */
+public class ReadWriteRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingConnectionFactory.class);
+
+    /**
+     * Key of the Reactor context telling whether the connection is acquired for a read-only transaction.
+     */
+    public static final String READ_ONLY_CONTEXT_KEY = ReadWriteRoutingConnectionFactory.class.getName() + ".readOnly";
+
+    public static final String LAG_METER_NAME = "r2dbc.replica.lag";
+    public static final String LAG_METER_DESCRIPTION = "Replication lag of the read replica at the last check, or -1 if it is unavailable.";
+    public static final String LAG_METER_BASE_UNIT = "seconds";
+
+    public static final String FALLBACKS_METER_NAME = "r2dbc.replica.fallbacks";
+    public static final String FALLBACKS_METER_DESCRIPTION = "Number of read-only transactions sent to the primary for want of a replica.";
+
+    public enum Balancing {
+        /**
+         * The replicas are used in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The replica with the fewest requests waiting for a connection is used, then the one with the fewest acquired.
+         */
+        LEAST_PENDING,
+    }
+
+    private final ConnectionFactory primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final Balancing balancing;
+
+    private final Duration maxLag;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter fallbackCounter;
+
+    private final Disposable lagChecks;
+
+    /**
+     * @param primary the connection factory of the primary.
+     * @param replicaPools the pools of the replicas.
+     * @param balancing how the replica of a transaction is chosen.
+     * @param maxLag the maximum replication lag of the replicas used.
+     * @param lagCheckInterval the interval between two checks of the lag, or zero to use the replicas without checking it.
+     * @param registry the registry of the metrics of the replicas.
+     */
+    public ReadWriteRoutingConnectionFactory(
+        ConnectionFactory primary,
+        List<ConnectionPool> replicaPools,
+        Balancing balancing,
+        Duration maxLag,
+        Duration lagCheckInterval,
+        MeterRegistry registry
+    ) {
+        this.primary = primary;
+        this.balancing = balancing;
+        this.maxLag = maxLag;
+        boolean checkLag = !lagCheckInterval.isZero();
+        for (int i = 0; i < replicaPools.size(); i++) {
+            String name = "replica-" + i;
+            ConnectionPool pool = replicaPools.get(i);
+            Replica replica = new Replica(name, pool, new MeteredConnectionPool(pool, name, registry), !checkLag);
+            new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry);
+            Gauge.builder(LAG_METER_NAME, replica, r -> r.available ? r.lagSeconds : -1)
+                .description(LAG_METER_DESCRIPTION)
+                .baseUnit(LAG_METER_BASE_UNIT)
+                .tag("name", name)
+                .register(registry);
+            replicas.add(replica);
+        }
+        this.fallbackCounter = Counter.builder(FALLBACKS_METER_NAME).description(FALLBACKS_METER_DESCRIPTION).register(registry);
+        this.lagChecks = checkLag
+            ? Flux.interval(Duration.ZERO, lagCheckInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(replicas).concatMap(replica -> checkLag(replica, lagCheckInterval)))
+                .subscribe()
+            : Disposables.composite();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (!isReadOnly(context)) {
+                return Mono.from(primary.create());
+            }
+            Replica replica = select();
+            if (replica == null) {
+                fallbackCounter.increment();
+                return Mono.from(primary.create());
+            }
+            return replica.connectionFactory
+                .create()
+                .onErrorResume(e -> {
+                    log.warn("Could not connect to the read replica {}, using the primary until it is checked again", replica.name, e);
+                    replica.available = false;
+                    fallbackCounter.increment();
+                    return Mono.from(primary.create());
+                });
+        });
+    }
+
+    private static boolean isReadOnly(ContextView context) {
+        return context.<Boolean>getOrEmpty(READ_ONLY_CONTEXT_KEY).orElse(false);
+    }
+
+    private Replica select() {
+        List<Replica> available = replicas.stream().filter(replica -> replica.available).toList();
+        if (available.isEmpty()) {
+            return null;
+        }
+        return switch (balancing) {
+            case ROUND_ROBIN -> available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+            case LEAST_PENDING -> available
+                .stream()
+                .min(Comparator.comparingInt(Replica::pendingAcquires).thenComparingInt(Replica::acquired))
+                .orElseThrow();
+        };
+    }
+
+    private Mono<Void> checkLag(Replica replica, Duration timeout) {
+        return Mono.usingWhen(replica.pool.create(), ReadWriteRoutingConnectionFactory::replicationLag, Connection::close)
+            .timeout(timeout)
+            .doOnNext(lag -> {
+                boolean available = lag.map(seconds -> seconds <= maxLag.toSeconds()).orElse(false);
+                if (!replica.checked || available != replica.available) {
+                    log.info("Read replica {} is {}, with a replication lag of {}", replica.name, available ? "used" : "not used", lag);
+                }
+                replica.lagSeconds = lag.orElse(-1L);
+                replica.available = available;
+                replica.checked = true;
+            })
+            .onErrorResume(e -> {
+                // A replica failing its first check starts unavailable, but is reported all the same
+                if (!replica.checked || replica.available) {
+                    log.warn("Could not check the replication lag of the read replica {}, not using it", replica.name, e);
+                }
+                replica.available = false;
+                replica.checked = true;
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * @return the replication lag in seconds, 0 if the server is not a replica, or empty if the replication is stopped.
+     */
+    private static Mono<Optional<Long>> replicationLag(Connection connection) {
+        return Flux.from(connection.createStatement("SHOW REPLICA STATUS").execute())
+            .flatMap(result -> result.map((Readable row) -> Optional.ofNullable(row.get("Seconds_Behind_Source", Number.class))))
+            .next()
+            .map(lag -> lag.map(Number::longValue))
+            .defaultIfEmpty(Optional.of(0L));
+    }
+
+    /**
+     * @return the pools of the replicas, to warm them up.
+     */
+    public List<ConnectionPool> getReplicaPools() {
+        return replicas.stream().map(replica -> replica.pool).toList();
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        lagChecks.dispose();
+        replicas.forEach(replica -> replica.pool.dispose());
+        if (primary instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return lagChecks.isDisposed();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final ConnectionPool pool;
+
+        private final MeteredConnectionPool connectionFactory;
+
+        private volatile boolean available;
+
+        private volatile boolean checked;
+
+        private volatile long lagSeconds;
+
+        private Replica(String name, ConnectionPool pool, MeteredConnectionPool connectionFactory, boolean available) {
+            this.name = name;
+            this.pool = pool;
+            this.connectionFactory = connectionFactory;
+            this.available = available;
+        }
+
+        private int pendingAcquires() {
+            return pool.getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0);
+        }
+
+        private int acquired() {
+            return pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+        }
+    }
+}
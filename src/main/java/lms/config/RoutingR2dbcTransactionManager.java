@@ -0,0 +1,29 @@
+package lms.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link R2dbcTransactionManager} telling the {@link ReadWriteRoutingConnectionFactory} whether the connection of a new
+ * transaction is acquired for a read-only transaction, so it is taken from a read replica.
+ */
+public class RoutingR2dbcTransactionManager extends R2dbcTransactionManager {
+
+    public RoutingR2dbcTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(
+        TransactionSynchronizationManager synchronizationManager,
+        Object transaction,
+        TransactionDefinition definition
+    ) {
+        return super
+            .doBegin(synchronizationManager, transaction, definition)
+            .contextWrite(context -> context.put(ReadWriteRoutingConnectionFactory.READ_ONLY_CONTEXT_KEY, definition.isReadOnly()));
+    }
+}
@@ -3,8 +3,14 @@ package lms.config;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import lms.management.SecurityMetersService;
 import lms.security.AuthoritiesConstants;
+import lms.security.MeteredPasswordEncoder;
+import lms.security.PasswordHashingScheduler;
 import lms.web.filter.SpaWebFilter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
@@ -12,8 +18,10 @@ import org.springframework.security.authentication.UserDetailsRepositoryReactive
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.header.ReferrerPolicyServerHttpHeadersWriter;
@@ -26,24 +34,47 @@ import tech.jhipster.config.JHipsterProperties;
 @EnableReactiveMethodSecurity
 public class SecurityConfiguration {
 
+    private static final String BCRYPT_ENCODER_ID = "bcrypt";
+
     private final JHipsterProperties jHipsterProperties;
 
-    public SecurityConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public SecurityConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+            BCRYPT_ENCODER_ID,
+            new BCryptPasswordEncoder(applicationProperties.getSecurity().getBcryptStrength())
+        );
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(BCRYPT_ENCODER_ID, encoders);
+        // The hashes stored before the encoders were versioned are BCrypt hashes without any {id} prefix
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT_ENCODER_ID));
+        return new MeteredPasswordEncoder(passwordEncoder, meterRegistry);
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService) {
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(
+        ReactiveUserDetailsService userDetailsService,
+        ObjectProvider<ReactiveUserDetailsPasswordService> userDetailsPasswordService,
+        PasswordEncoder passwordEncoder,
+        PasswordHashingScheduler passwordHashingScheduler,
+        SecurityMetersService securityMetersService
+    ) {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
-            userDetailsService
+            username -> securityMetersService.trackUserLookup(userDetailsService.findByUsername(username))
         );
-        authenticationManager.setPasswordEncoder(passwordEncoder());
-        return authenticationManager;
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        // Rehash the passwords of an outdated encoder or cost on successful logins
+        userDetailsPasswordService.ifAvailable(authenticationManager::setUserDetailsPasswordService);
+        // Match the passwords on the hashing pool, and reject the logins beyond its capacity
+        authenticationManager.setScheduler(passwordHashingScheduler.getScheduler());
+        return authentication ->
+            securityMetersService.trackLogin(passwordHashingScheduler.admit(authenticationManager.authenticate(authentication)));
     }
 
     @Bean
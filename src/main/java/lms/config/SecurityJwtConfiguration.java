@@ -4,11 +4,11 @@ import static lms.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import lms.management.SecurityMetersService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import lms.security.CachingJwtDecoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,47 +16,29 @@ import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class SecurityJwtConfiguration {
 
-    private static final Logger log = LoggerFactory.getLogger(SecurityJwtConfiguration.class);
-
     @Value("${jhipster.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public ReactiveJwtDecoder jwtDecoder(
+        SecurityMetersService metersService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder
-                    .decode(token)
-                    .doOnError(e -> {
-                        if (e.getMessage().contains("Jwt expired at")) {
-                            metersService.trackTokenExpired();
-                        } else if (e.getMessage().contains("Failed to validate the token")) {
-                            metersService.trackTokenInvalidSignature();
-                        } else if (
-                            e.getMessage().contains("Invalid JWT serialization:") ||
-                            e.getMessage().contains("Invalid unsecured/JWS/JWE header:")
-                        ) {
-                            metersService.trackTokenMalformed();
-                        } else {
-                            log.error("Unknown JWT reactive error {}", e.getMessage());
-                        }
-                    });
-            } catch (Exception e) {
-                if (e.getMessage().contains("An error occurred while attempting to decode the Jwt")) {
-                    metersService.trackTokenMalformed();
-                } else if (e.getMessage().contains("Failed to validate the token")) {
-                    metersService.trackTokenInvalidSignature();
-                } else {
-                    log.error("Unknown JWT error {}", e.getMessage());
-                }
-                throw e;
-            }
-        };
+        // The decoder throws the parsing errors instead of returning them, defer it so they are tracked too
+        ReactiveJwtDecoder verifyingDecoder = token -> metersService.trackTokenVerification(Mono.defer(() -> jwtDecoder.decode(token)));
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(
+            verifyingDecoder,
+            applicationProperties.getSecurity().getTokenCacheMaxEntries(),
+            meterRegistry
+        );
+        return token -> metersService.trackTokenDecode(cachingJwtDecoder.decode(token));
     }
 
     @Bean
@@ -0,0 +1,39 @@
+package lms.config;
+
+import lms.service.UserPurgeService;
+import lms.service.UserPurgeService.PurgeStatus;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Actuator endpoint showing the progress of the purge of the users not activated on this node, at
+ * {@code /management/userpurge}, and starting it on demand.
+ */
+@Component
+@Endpoint(id = "userpurge")
+public class UserPurgeEndpoint {
+
+    private final UserPurgeService userPurgeService;
+
+    public UserPurgeEndpoint(UserPurgeService userPurgeService) {
+        this.userPurgeService = userPurgeService;
+    }
+
+    @ReadOperation
+    public PurgeStatus status() {
+        return userPurgeService.getStatus();
+    }
+
+    /**
+     * Runs the purge now, unless it is running on any node.
+     *
+     * @return the status of the purge once it ends.
+     */
+    @WriteOperation
+    public Mono<PurgeStatus> purge() {
+        return userPurgeService.purge();
+    }
+}
@@ -0,0 +1,178 @@
+package lms.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.LocalDateFilter;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Criteria class for the {@link lms.domain.Courses} entity. This class is used in
+ * {@link lms.web.rest.CoursesResource} to receive all the possible filtering options from the Http GET request
+ * parameters.
+ * For example the following could be a valid request:
+ * {@code /courses?start_date.greaterThanOrEqual=2024-09-01&course_name.startsWith=Intro&studentId.specified=false}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class
+ * are used, we need to use fix type specific filters.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class CoursesCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private PrefixStringFilter course_name;
+
+    private LocalDateFilter start_date;
+
+    private LocalDateFilter end_date;
+
+    private LongFilter studentId;
+
+    public CoursesCriteria() {}
+
+    public CoursesCriteria(CoursesCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.course_name = other.optionalCourse_name().map(PrefixStringFilter::copy).orElse(null);
+        this.start_date = other.optionalStart_date().map(LocalDateFilter::copy).orElse(null);
+        this.end_date = other.optionalEnd_date().map(LocalDateFilter::copy).orElse(null);
+        this.studentId = other.optionalStudentId().map(LongFilter::copy).orElse(null);
+    }
+
+    @Override
+    public CoursesCriteria copy() {
+        return new CoursesCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public PrefixStringFilter getCourse_name() {
+        return course_name;
+    }
+
+    public Optional<PrefixStringFilter> optionalCourse_name() {
+        return Optional.ofNullable(course_name);
+    }
+
+    public PrefixStringFilter course_name() {
+        if (course_name == null) {
+            setCourse_name(new PrefixStringFilter());
+        }
+        return course_name;
+    }
+
+    public void setCourse_name(PrefixStringFilter course_name) {
+        this.course_name = course_name;
+    }
+
+    public LocalDateFilter getStart_date() {
+        return start_date;
+    }
+
+    public Optional<LocalDateFilter> optionalStart_date() {
+        return Optional.ofNullable(start_date);
+    }
+
+    public LocalDateFilter start_date() {
+        if (start_date == null) {
+            setStart_date(new LocalDateFilter());
+        }
+        return start_date;
+    }
+
+    public void setStart_date(LocalDateFilter start_date) {
+        this.start_date = start_date;
+    }
+
+    public LocalDateFilter getEnd_date() {
+        return end_date;
+    }
+
+    public Optional<LocalDateFilter> optionalEnd_date() {
+        return Optional.ofNullable(end_date);
+    }
+
+    public LocalDateFilter end_date() {
+        if (end_date == null) {
+            setEnd_date(new LocalDateFilter());
+        }
+        return end_date;
+    }
+
+    public void setEnd_date(LocalDateFilter end_date) {
+        this.end_date = end_date;
+    }
+
+    public LongFilter getStudentId() {
+        return studentId;
+    }
+
+    public Optional<LongFilter> optionalStudentId() {
+        return Optional.ofNullable(studentId);
+    }
+
+    public LongFilter studentId() {
+        if (studentId == null) {
+            setStudentId(new LongFilter());
+        }
+        return studentId;
+    }
+
+    public void setStudentId(LongFilter studentId) {
+        this.studentId = studentId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CoursesCriteria that = (CoursesCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(course_name, that.course_name) &&
+            Objects.equals(start_date, that.start_date) &&
+            Objects.equals(end_date, that.end_date) &&
+            Objects.equals(studentId, that.studentId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, course_name, start_date, end_date, studentId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CoursesCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalCourse_name().map(f -> "course_name=" + f + ", ").orElse("") +
+            optionalStart_date().map(f -> "start_date=" + f + ", ").orElse("") +
+            optionalEnd_date().map(f -> "end_date=" + f + ", ").orElse("") +
+            optionalStudentId().map(f -> "studentId=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,76 @@
+package lms.domain.criteria;
+
+import java.util.Objects;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * A {@link StringFilter} which can also match the values starting with a prefix. Unlike {@code contains}, a prefix
+ * match can use an index on the column.
+ * <pre>
+ *      fieldName.startsWith='something'
+ * </pre>
+ */
+public class PrefixStringFilter extends StringFilter {
+
+    private static final long serialVersionUID = 1L;
+
+    private String startsWith;
+
+    public PrefixStringFilter() {}
+
+    public PrefixStringFilter(PrefixStringFilter filter) {
+        super(filter);
+        this.startsWith = filter.startsWith;
+    }
+
+    @Override
+    public PrefixStringFilter copy() {
+        return new PrefixStringFilter(this);
+    }
+
+    public String getStartsWith() {
+        return startsWith;
+    }
+
+    public PrefixStringFilter setStartsWith(String startsWith) {
+        this.startsWith = startsWith;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        PrefixStringFilter that = (PrefixStringFilter) o;
+        return Objects.equals(startsWith, that.startsWith);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), startsWith);
+    }
+
+    @Override
+    public String toString() {
+        return (
+            getFilterName() +
+            " [" +
+            (getEquals() != null ? "equals=" + getEquals() + ", " : "") +
+            (getNotEquals() != null ? "notEquals=" + getNotEquals() + ", " : "") +
+            (getSpecified() != null ? "specified=" + getSpecified() + ", " : "") +
+            (getIn() != null ? "in=" + getIn() + ", " : "") +
+            (getNotIn() != null ? "notIn=" + getNotIn() + ", " : "") +
+            (getContains() != null ? "contains=" + getContains() + ", " : "") +
+            (getDoesNotContain() != null ? "doesNotContain=" + getDoesNotContain() + ", " : "") +
+            (getStartsWith() != null ? "startsWith=" + getStartsWith() : "") +
+            "]"
+        );
+    }
+}
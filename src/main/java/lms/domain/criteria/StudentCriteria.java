@@ -0,0 +1,125 @@
+package lms.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Criteria class for the {@link lms.domain.Student} entity. This class is used in
+ * {@link lms.web.rest.StudentResource} to receive all the possible filtering options from the Http GET request
+ * parameters.
+ * For example the following could be a valid request:
+ * {@code /students?student_name.startsWith=Jo&reg_no.in=R1,R2}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class
+ * are used, we need to use fix type specific filters.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class StudentCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private PrefixStringFilter reg_no;
+
+    private PrefixStringFilter student_name;
+
+    public StudentCriteria() {}
+
+    public StudentCriteria(StudentCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.reg_no = other.optionalReg_no().map(PrefixStringFilter::copy).orElse(null);
+        this.student_name = other.optionalStudent_name().map(PrefixStringFilter::copy).orElse(null);
+    }
+
+    @Override
+    public StudentCriteria copy() {
+        return new StudentCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public PrefixStringFilter getReg_no() {
+        return reg_no;
+    }
+
+    public Optional<PrefixStringFilter> optionalReg_no() {
+        return Optional.ofNullable(reg_no);
+    }
+
+    public PrefixStringFilter reg_no() {
+        if (reg_no == null) {
+            setReg_no(new PrefixStringFilter());
+        }
+        return reg_no;
+    }
+
+    public void setReg_no(PrefixStringFilter reg_no) {
+        this.reg_no = reg_no;
+    }
+
+    public PrefixStringFilter getStudent_name() {
+        return student_name;
+    }
+
+    public Optional<PrefixStringFilter> optionalStudent_name() {
+        return Optional.ofNullable(student_name);
+    }
+
+    public PrefixStringFilter student_name() {
+        if (student_name == null) {
+            setStudent_name(new PrefixStringFilter());
+        }
+        return student_name;
+    }
+
+    public void setStudent_name(PrefixStringFilter student_name) {
+        this.student_name = student_name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final StudentCriteria that = (StudentCriteria) o;
+        return Objects.equals(id, that.id) && Objects.equals(reg_no, that.reg_no) && Objects.equals(student_name, that.student_name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, reg_no, student_name);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StudentCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalReg_no().map(f -> "reg_no=" + f + ", ").orElse("") +
+            optionalStudent_name().map(f -> "student_name=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Criteria filtering the domain objects.
+ */
+package lms.domain.criteria;
@@ -1,28 +1,86 @@
 package lms.management;
 
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 @Service
 public class SecurityMetersService {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityMetersService.class);
+
     public static final String INVALID_TOKENS_METER_NAME = "security.authentication.invalid-tokens";
     public static final String INVALID_TOKENS_METER_DESCRIPTION =
         "Indicates validation error count of the tokens presented by the clients.";
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String TOKEN_VERIFICATION_METER_NAME = "security.authentication.token-verification";
+    public static final String TOKEN_VERIFICATION_METER_DESCRIPTION =
+        "Time spent parsing and verifying the tokens which were not found in the cache of decoded tokens.";
+
+    public static final String TOKEN_DECODE_METER_NAME = "security.authentication.token-decode";
+    public static final String TOKEN_DECODE_METER_DESCRIPTION = "Time spent decoding the tokens presented by the clients, cached or not.";
+
+    public static final String TOKEN_ISSUE_METER_NAME = "security.authentication.token-issue";
+    public static final String TOKEN_ISSUE_METER_DESCRIPTION = "Time spent creating and signing the tokens of the authenticated users.";
+
+    public static final String USER_LOOKUP_METER_NAME = "security.authentication.user-lookup";
+    public static final String USER_LOOKUP_METER_DESCRIPTION = "Time spent looking up the users logging in, cached or not.";
+
+    public static final String LOGINS_METER_NAME = "security.authentication.logins";
+    public static final String LOGINS_METER_DESCRIPTION = "Time spent authenticating the users logging in, by result and cause.";
+    public static final String LOGINS_METER_RESULT_DIMENSION = "result";
+    public static final String LOGINS_METER_CAUSE_DIMENSION = "cause";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
 
+    private final Timer tokenVerificationTimer;
+    private final Timer tokenDecodeTimer;
+    private final Timer tokenIssueTimer;
+    private final Timer userLookupTimer;
+
+    private final Timer loginSucceededTimer;
+    private final Timer loginBadCredentialsTimer;
+    private final Timer loginUserNotFoundTimer;
+    private final Timer loginNotActivatedTimer;
+    private final Timer loginRejectedTimer;
+    private final Timer loginErrorTimer;
+
+    private final MeterRegistry registry;
+
     public SecurityMetersService(MeterRegistry registry) {
+        this.registry = registry;
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenVerificationTimer = timerBuilder(TOKEN_VERIFICATION_METER_NAME, TOKEN_VERIFICATION_METER_DESCRIPTION).register(registry);
+        this.tokenDecodeTimer = timerBuilder(TOKEN_DECODE_METER_NAME, TOKEN_DECODE_METER_DESCRIPTION).register(registry);
+        this.tokenIssueTimer = timerBuilder(TOKEN_ISSUE_METER_NAME, TOKEN_ISSUE_METER_DESCRIPTION).register(registry);
+        this.userLookupTimer = timerBuilder(USER_LOOKUP_METER_NAME, USER_LOOKUP_METER_DESCRIPTION).register(registry);
+        this.loginSucceededTimer = loginsTimerBuilder("success", "none").register(registry);
+        this.loginBadCredentialsTimer = loginsTimerBuilder("failure", "bad-credentials").register(registry);
+        this.loginUserNotFoundTimer = loginsTimerBuilder("failure", "user-not-found").register(registry);
+        this.loginNotActivatedTimer = loginsTimerBuilder("failure", "not-activated").register(registry);
+        this.loginRejectedTimer = loginsTimerBuilder("failure", "rejected").register(registry);
+        this.loginErrorTimer = loginsTimerBuilder("failure", "error").register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -32,6 +90,16 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Timer.Builder timerBuilder(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram();
+    }
+
+    private Timer.Builder loginsTimerBuilder(String result, String cause) {
+        return timerBuilder(LOGINS_METER_NAME, LOGINS_METER_DESCRIPTION)
+            .tag(LOGINS_METER_RESULT_DIMENSION, result)
+            .tag(LOGINS_METER_CAUSE_DIMENSION, cause);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -47,4 +115,110 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    /**
+     * Times the given token verification, and counts its failure by cause.
+     *
+     * @param verification the verification of a token.
+     * @param <T> the type of the verified token.
+     * @return the verification, tracked on subscription.
+     */
+    public <T> Mono<T> trackTokenVerification(Mono<T> verification) {
+        return timed(verification.doOnError(this::trackTokenFailure), tokenVerificationTimer);
+    }
+
+    /**
+     * Times the given token decoding, whether the token was cached or not.
+     *
+     * @param decoding the decoding of a token.
+     * @param <T> the type of the decoded token.
+     * @return the decoding, tracked on subscription.
+     */
+    public <T> Mono<T> trackTokenDecode(Mono<T> decoding) {
+        return timed(decoding, tokenDecodeTimer);
+    }
+
+    /**
+     * Times the creation of a token.
+     *
+     * @param issue the creation of the token.
+     * @return the token.
+     */
+    public String trackTokenIssue(Supplier<String> issue) {
+        return tokenIssueTimer.record(issue);
+    }
+
+    /**
+     * Times the given lookup of a user logging in.
+     *
+     * @param lookup the lookup of the user.
+     * @param <T> the type of the user.
+     * @return the lookup, tracked on subscription.
+     */
+    public <T> Mono<T> trackUserLookup(Mono<T> lookup) {
+        return timed(lookup, userLookupTimer);
+    }
+
+    /**
+     * Times the given login, by result and cause of failure.
+     *
+     * @param login the authentication of the user logging in.
+     * @param <T> the type of the authentication.
+     * @return the login, tracked on subscription.
+     */
+    public <T> Mono<T> trackLogin(Mono<T> login) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return login
+                .doOnSuccess(authentication -> sample.stop(loginSucceededTimer))
+                .doOnError(error -> sample.stop(loginTimerForFailure(error)));
+        });
+    }
+
+    /**
+     * Counts the given token verification failure, according to the type of the error raised by the
+     * {@link org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder}.
+     *
+     * @param error the error.
+     */
+    public void trackTokenFailure(Throwable error) {
+        if (error instanceof JwtValidationException) {
+            // The claims are only validated by the default validators, which check the expiry and not-before timestamps
+            trackTokenExpired();
+        } else if (error instanceof BadJwtException) {
+            Throwable cause = error.getCause();
+            if (cause instanceof BadJWSException) {
+                trackTokenInvalidSignature();
+            } else if (cause instanceof BadJOSEException || cause == null) {
+                // Signed with another algorithm than the expected one, or not signed at all
+                trackTokenUnsupported();
+            } else {
+                trackTokenMalformed();
+            }
+        } else {
+            log.error("Unknown JWT error {}", error.getMessage());
+        }
+    }
+
+    private Timer loginTimerForFailure(Throwable error) {
+        if (error instanceof BadCredentialsException) {
+            return loginBadCredentialsTimer;
+        } else if (error instanceof UsernameNotFoundException) {
+            return loginUserNotFoundTimer;
+        } else if (error instanceof DisabledException) {
+            // Including the users who did not activate their account
+            return loginNotActivatedTimer;
+        } else if (error instanceof RejectedExecutionException) {
+            // Including the logins rejected because the password hashing pool is saturated
+            return loginRejectedTimer;
+        }
+        return loginErrorTimer;
+    }
+
+    private <T> Mono<T> timed(Mono<T> mono, Timer timer) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return mono.doOnTerminate(() -> sample.stop(timer));
+        });
+    }
 }
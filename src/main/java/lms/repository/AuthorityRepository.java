@@ -9,4 +9,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AuthorityRepository extends R2dbcRepository<Authority, String> {}
+public interface AuthorityRepository extends R2dbcRepository<Authority, String> {
+    String AUTHORITY_NAMES_CACHE = "authorityNames";
+}
@@ -1,6 +1,10 @@
 package lms.repository;
 
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.function.BiFunction;
 import lms.domain.Courses;
+import lms.domain.criteria.CoursesCriteria;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -14,6 +18,10 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface CoursesRepository extends ReactiveCrudRepository<Courses, Long>, CoursesRepositoryInternal {
+    String TABLE = "courses";
+
+    String COURSES_BY_ID_CACHE = "coursesById";
+
     @Override
     Mono<Courses> findOneWithEagerRelationships(Long id);
 
@@ -47,11 +55,19 @@ interface CoursesRepositoryInternal {
 
     Flux<Courses> findAllBy(Pageable pageable);
 
+    Flux<Courses> findAllBy(Keyset keyset, int pageSize);
+
+    Flux<Courses> findAllBy(Keyset keyset, int pageSize, CoursesCriteria criteria);
+
+    <T> Flux<T> streamAllAfter(Long lastId, BiFunction<Row, RowMetadata, T> mapper);
+
     Flux<Courses> findAll();
 
     Mono<Courses> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Courses> findAllBy(Pageable pageable, Criteria criteria);
+
+    Flux<Courses> findAllBy(Pageable pageable, CoursesCriteria criteria);
+
+    Flux<Courses> search(String text, int limit);
 
     Mono<Courses> findOneWithEagerRelationships(Long id);
 
@@ -59,5 +75,7 @@ interface CoursesRepositoryInternal {
 
     Flux<Courses> findAllWithEagerRelationships(Pageable page);
 
+    Flux<Courses> findAllWithEagerRelationships(Pageable page, CoursesCriteria criteria);
+
     Mono<Void> deleteById(Long id);
 }
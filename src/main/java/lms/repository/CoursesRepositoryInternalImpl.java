@@ -3,7 +3,15 @@ package lms.repository;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import lms.domain.Courses;
+import lms.domain.Student;
+import lms.domain.criteria.CoursesCriteria;
 import lms.repository.rowmapper.CoursesRowMapper;
 import lms.repository.rowmapper.StudentRowMapper;
 import org.springframework.data.domain.Pageable;
@@ -12,16 +20,18 @@ import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
+import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -38,6 +48,24 @@ class CoursesRepositoryInternalImpl extends SimpleR2dbcRepository<Courses, Long>
     private final StudentRowMapper studentMapper;
     private final CoursesRowMapper coursesMapper;
 
+    private final String studentsByIdsSql;
+
+    private final String searchSql;
+
+    private static final String ALL_QUERY = "all";
+    private static final String BY_ID_QUERY = "byId";
+    private static final String STREAM_QUERY = "stream";
+
+    private static final String STUDENT_IDS_MARKER = "studentIds";
+    private static final String SEARCH_MARKER = "searchQuery";
+
+    private static final String MATCH_COURSE_NAME =
+        "MATCH(" + EntityManager.ENTITY_ALIAS + ".course_name) AGAINST(:" + SEARCH_MARKER + " IN BOOLEAN MODE)";
+    // InnoDB does not index the words shorter than innodb_ft_min_token_size, 3 by default
+    private static final int SEARCH_MIN_WORD_LENGTH = 3;
+    private static final Pattern SEARCH_WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int STUDENT_BATCH_SIZE = 256;
+
     private static final Table entityTable = Table.aliased("courses", EntityManager.ENTITY_ALIAS);
     private static final Table studentTable = Table.aliased("student", "student");
 
@@ -59,25 +87,108 @@ class CoursesRepositoryInternalImpl extends SimpleR2dbcRepository<Courses, Long>
         this.entityManager = entityManager;
         this.studentMapper = studentMapper;
         this.coursesMapper = coursesMapper;
+        this.studentsByIdsSql = entityManager.createSelect(
+            Select.builder()
+                .select(StudentSqlHelper.getColumns(studentTable, "student"))
+                .from(studentTable)
+                .where(Conditions.in(Column.create("id", studentTable), SQL.bindMarker(":" + STUDENT_IDS_MARKER)))
+                .build()
+        );
+        this.searchSql =
+            entityManager.createSelect(
+                createSelectFrom()
+                    .where(Conditions.just(MATCH_COURSE_NAME))
+                    .orderBy(OrderByField.from(Expressions.just(MATCH_COURSE_NAME)).desc(), OrderByField.from(entityTable.column("id")))
+                    .build()
+            ) +
+            " LIMIT :" +
+            EntityManager.LIMIT_MARKER;
     }
 
     @Override
     public Flux<Courses> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery(ALL_QUERY, pageable, null).map(coursesMapper.compile("e")).all();
+    }
+
+    @Override
+    public Flux<Courses> findAllBy(Pageable pageable, CoursesCriteria criteria) {
+        CriteriaCondition condition = buildConditions(criteria);
+        return condition
+            .bindTo(createQuery(condition.queryName(ALL_QUERY), pageable, condition.where()))
+            .map(coursesMapper.compile("e"))
+            .all();
+    }
+
+    @Override
+    public Flux<Courses> findAllBy(Keyset keyset, int pageSize) {
+        return findAllBy(keyset, pageSize, new CoursesCriteria());
+    }
+
+    @Override
+    public Flux<Courses> findAllBy(Keyset keyset, int pageSize, CoursesCriteria criteria) {
+        CriteriaCondition condition = buildConditions(criteria);
+        return withStudents(
+            condition
+                .bindTo(
+                    entityManager.createSelect(
+                        condition.queryName(ALL_QUERY),
+                        Courses.class,
+                        keyset,
+                        pageSize,
+                        this::createSelectFrom,
+                        condition.where()
+                    )
+                )
+                .map(coursesMapper.compile("e"))
+                .all()
+        );
     }
 
-    RowsFetchSpec<Courses> createQuery(Pageable pageable, Condition whereClause) {
+    /**
+     * Searches the courses by name with the FULLTEXT index, the most relevant first. Every word of the text must match the
+     * start of a word of the name.
+     */
+    @Override
+    public Flux<Courses> search(String text, int limit) {
+        String query = SEARCH_WORD_SEPARATOR.splitAsStream(text)
+            .filter(word -> word.length() >= SEARCH_MIN_WORD_LENGTH)
+            .map(word -> "+" + word + "*")
+            .collect(Collectors.joining(" "));
+        if (query.isEmpty()) {
+            return Flux.empty();
+        }
+        return db
+            .sql(searchSql)
+            .bind(SEARCH_MARKER, query)
+            .bind(EntityManager.LIMIT_MARKER, limit)
+            .map(coursesMapper.compile("e"))
+            .all();
+    }
+
+    private CriteriaCondition buildConditions(CoursesCriteria criteria) {
+        return new CriteriaCondition(entityTable)
+            .add("id", criteria.getId())
+            .add("course_name", criteria.getCourse_name())
+            .add("start_date", criteria.getStart_date())
+            .add("end_date", criteria.getEnd_date())
+            .add("student_id", criteria.getStudentId());
+    }
+
+    @Override
+    public <T> Flux<T> streamAllAfter(Long lastId, BiFunction<Row, RowMetadata, T> mapper) {
+        return entityManager
+            .createStream(STREAM_QUERY, Courses.class, Keyset.afterId(lastId), this::createSelectFrom, null)
+            .map(mapper)
+            .all();
+    }
+
+    GenericExecuteSpec createQuery(String queryName, Pageable pageable, Supplier<Condition> whereClause) {
+        return entityManager.createSelect(queryName, Courses.class, pageable, this::createSelectFrom, whereClause);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = CoursesSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(StudentSqlHelper.getColumns(studentTable, "student"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(studentTable)
-            .on(Column.create("student_id", entityTable))
-            .equals(Column.create("id", studentTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Courses.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -87,29 +198,60 @@ class CoursesRepositoryInternalImpl extends SimpleR2dbcRepository<Courses, Long>
 
     @Override
     public Mono<Courses> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery(BY_ID_QUERY, null, () -> Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id")))
+            .bind("id", id)
+            .map(coursesMapper.compile("e"))
+            .one();
     }
 
     @Override
     public Mono<Courses> findOneWithEagerRelationships(Long id) {
-        return findById(id);
+        return withStudents(findById(id).flux()).singleOrEmpty();
     }
 
     @Override
     public Flux<Courses> findAllWithEagerRelationships() {
-        return findAll();
+        return withStudents(findAll());
     }
 
     @Override
     public Flux<Courses> findAllWithEagerRelationships(Pageable page) {
-        return findAllBy(page);
+        return withStudents(findAllBy(page));
+    }
+
+    @Override
+    public Flux<Courses> findAllWithEagerRelationships(Pageable page, CoursesCriteria criteria) {
+        return withStudents(findAllBy(page, criteria));
+    }
+
+    /**
+     * Sets the students of the courses, loading them with one {@code IN} query per batch of courses, so every distinct
+     * student is read once per batch instead of once per course row.
+     */
+    private Flux<Courses> withStudents(Flux<Courses> courses) {
+        return courses.buffer(STUDENT_BATCH_SIZE).concatMap(this::withStudents);
     }
 
-    private Courses process(Row row, RowMetadata metadata) {
-        Courses entity = coursesMapper.apply(row, "e");
-        entity.setStudent(studentMapper.apply(row, "student"));
-        return entity;
+    private Flux<Courses> withStudents(List<Courses> batch) {
+        Set<Long> studentIds = batch.stream().map(Courses::getStudentId).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (studentIds.isEmpty()) {
+            return Flux.fromIterable(batch);
+        }
+        return db
+            .sql(studentsByIdsSql)
+            .bind(STUDENT_IDS_MARKER, studentIds)
+            .map(studentMapper.compile("student"))
+            .all()
+            .collectMap(Student::getId)
+            .flatMapIterable(students -> {
+                for (Courses course : batch) {
+                    Student student = course.getStudentId() != null ? students.get(course.getStudentId()) : null;
+                    if (student != null) {
+                        course.setStudent(student);
+                    }
+                }
+                return batch;
+            });
     }
 
     @Override
@@ -0,0 +1,146 @@
+package lms.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lms.domain.criteria.PrefixStringFilter;
+import org.springframework.data.relational.core.sql.BindMarker;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Renders the filters of a criteria into a where clause, with a bind marker for every value.
+ * <p>
+ * The SQL only depends on the shape of the criteria - which operators are set on which columns - so it is named by
+ * {@link #queryName(String)} and cached per shape by the {@link EntityManager}, while the values are bound to every
+ * execution by {@link #bindTo(GenericExecuteSpec)}. The {@code in} lists are bound as a single collection, which the
+ * driver expands, so their length does not change the shape either.
+ */
+public final class CriteriaCondition {
+
+    private static final String MARKER_PREFIX = "criteria_";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final Table table;
+
+    private final List<Condition> conditions = new ArrayList<>();
+
+    private final StringJoiner shape = new StringJoiner(",", "[", "]");
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    public CriteriaCondition(Table table) {
+        this.table = table;
+    }
+
+    /**
+     * Adds the conditions of the given filter on a column: the equality, {@code in} and {@code specified} operators of
+     * any filter, the range operators of a {@link RangeFilter}, and the pattern operators of a {@link StringFilter}.
+     *
+     * @param columnName the name of the column.
+     * @param filter the filter, or null.
+     * @return this.
+     */
+    public CriteriaCondition add(String columnName, Filter<?> filter) {
+        if (filter == null) {
+            return this;
+        }
+        Column column = table.column(columnName);
+        add(columnName, "eq", filter.getEquals(), column::isEqualTo);
+        add(columnName, "ne", filter.getNotEquals(), column::isNotEqualTo);
+        if (filter.getIn() != null && !filter.getIn().isEmpty()) {
+            add(columnName, "in", filter.getIn(), column::in);
+        }
+        if (filter.getNotIn() != null && !filter.getNotIn().isEmpty()) {
+            add(columnName, "notIn", filter.getNotIn(), column::notIn);
+        }
+        if (filter.getSpecified() != null) {
+            conditions.add(filter.getSpecified() ? column.isNotNull() : column.isNull());
+            shape.add(columnName + ".specified=" + filter.getSpecified());
+        }
+        if (filter instanceof RangeFilter<?> range) {
+            add(columnName, "gt", range.getGreaterThan(), column::isGreater);
+            add(columnName, "gte", range.getGreaterThanOrEqual(), column::isGreaterOrEqualTo);
+            add(columnName, "lt", range.getLessThan(), column::isLess);
+            add(columnName, "lte", range.getLessThanOrEqual(), column::isLessOrEqualTo);
+        }
+        if (filter instanceof StringFilter string) {
+            add(columnName, "contains", like(string.getContains(), "%", "%"), column::like);
+            add(columnName, "doesNotContain", like(string.getDoesNotContain(), "%", "%"), column::notLike);
+        }
+        if (filter instanceof PrefixStringFilter prefix) {
+            add(columnName, "startsWith", like(prefix.getStartsWith(), "", "%"), column::like);
+        }
+        return this;
+    }
+
+    private void add(String columnName, String operator, Object value, Function<BindMarker, Condition> condition) {
+        if (value == null) {
+            return;
+        }
+        String marker = MARKER_PREFIX + columnName + "_" + operator;
+        conditions.add(condition.apply(SQL.bindMarker(":" + marker)));
+        shape.add(columnName + "." + operator);
+        values.put(marker, value);
+    }
+
+    /**
+     * Escapes the wildcards of the given value, so it is matched literally by {@code LIKE}.
+     */
+    private static String like(String value, String prefix, String suffix) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder(prefix);
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append(suffix).toString();
+    }
+
+    /**
+     * @param queryName the name of the query without criteria.
+     * @return the name of the query with the shape of this criteria, which identifies its rendered SQL.
+     */
+    public String queryName(String queryName) {
+        return conditions.isEmpty() ? queryName : queryName + shape;
+    }
+
+    /**
+     * @return the supplier of the where clause, or null if no filter is set.
+     */
+    public Supplier<Condition> where() {
+        return conditions.isEmpty() ? null : () -> conditions.stream().reduce(Condition::and).orElseThrow();
+    }
+
+    /**
+     * Binds the values of the filters to the statement rendered with {@link #where()}.
+     *
+     * @param spec the statement.
+     * @return the statement with the bound values.
+     */
+    public GenericExecuteSpec bindTo(GenericExecuteSpec spec) {
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        return spec;
+    }
+
+    Map<String, Object> getValues() {
+        return values;
+    }
+}
@@ -1,25 +1,43 @@
 package lms.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lms.config.ApplicationProperties;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
@@ -52,16 +70,49 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Identifies a rendered select: the SQL only depends on these, all values are bound as parameters.
+     */
+    private record StatementKey(Class<?> entityType, String queryName, String paging, Sort sort) {}
+
+    public static final String STATEMENT_CACHE_NAME = "entityManager.statements";
+
+    static final String LIMIT_MARKER = "pageLimit";
+    static final String OFFSET_MARKER = "pageOffset";
+
+    private static final String PAGED = "paged";
+    private static final String UNPAGED = "unpaged";
+    private static final String KEYSET_FIRST = "keysetFirst";
+    private static final String KEYSET_AFTER_VALUE = "keysetAfterValue";
+    private static final String KEYSET_AFTER_NULL = "keysetAfterNull";
+    private static final String STREAM = "stream:";
+    private static final String BULK_INSERT = "bulkInsert";
+    private static final String BULK_UPDATE = "bulkUpdate";
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final Cache<StatementKey, String> statementCache;
+    private final int streamFetchSize;
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.statementCache = Caffeine.newBuilder()
+            .maximumSize(applicationProperties.getRepository().getStatementCacheSize())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statementCache, STATEMENT_CACHE_NAME);
+        this.streamFetchSize = applicationProperties.getRepository().getStreamFetchSize();
     }
 
     /**
@@ -128,6 +179,100 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Creates a statement from the given query shape and pagination parameters. The SQL is rendered once per shape - the
+     * query, the sort and whether it is paged - and then served from a bounded cache. The page is bound as parameters, so
+     * the SQL text does not change from page to page.
+     * @param queryName name of the query, which identifies the projection, the joins and the shape of the where clause.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, or null, if everything needs to be returned.
+     * @param selectFrom creates the select, only called when the statement is not cached yet.
+     * @param where creates the condition with bind markers, or null. Only called when the statement is not cached yet.
+     * @return the statement, with the page bound.
+     */
+    public GenericExecuteSpec createSelect(
+        String queryName,
+        Class<?> entityType,
+        Pageable pageable,
+        Supplier<? extends SelectWhere> selectFrom,
+        Supplier<Condition> where
+    ) {
+        boolean paged = pageable != null && pageable.isPaged();
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+        StatementKey key = new StatementKey(entityType, queryName, paged ? PAGED : UNPAGED, sort);
+        String sql = statementCache.get(key, k -> {
+            SelectWhere select = selectFrom.get();
+            String rendered = createSelectImpl(where != null ? select.where(where.get()) : select, entityType, sort);
+            return paged ? rendered + " LIMIT :" + LIMIT_MARKER + " OFFSET :" + OFFSET_MARKER : rendered;
+        });
+        GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient().sql(sql);
+        return paged ? spec.bind(LIMIT_MARKER, pageable.getPageSize()).bind(OFFSET_MARKER, pageable.getOffset()) : spec;
+    }
+
+    /**
+     * Creates a statement which seeks to the given keyset position, instead of skipping rows with an offset. The SQL is
+     * cached per query, keyset sort and kind of position, see {@link #createSelect(String, Class, Pageable, Supplier, Supplier)}.
+     * @param queryName name of the query, which identifies the projection, the joins and the shape of the where clause.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the sort and position of the page.
+     * @param pageSize the maximum number of rows to return.
+     * @param selectFrom creates the select, only called when the statement is not cached yet.
+     * @param where creates the condition with bind markers, or null. Only called when the statement is not cached yet.
+     * @return the statement, with the position and the page size bound.
+     */
+    public GenericExecuteSpec createSelect(
+        String queryName,
+        Class<?> entityType,
+        Keyset keyset,
+        int pageSize,
+        Supplier<? extends SelectWhere> selectFrom,
+        Supplier<Condition> where
+    ) {
+        String sql = createKeysetSelect(queryName, entityType, keyset, true, selectFrom, where);
+        return keyset.bindTo(r2dbcEntityTemplate.getDatabaseClient().sql(sql)).bind(LIMIT_MARKER, pageSize);
+    }
+
+    /**
+     * Creates a statement which streams all the rows after the given keyset position, in the order of the keyset. The rows
+     * are fetched from the database in chunks of {@code application.repository.stream-fetch-size} rows, as the subscriber
+     * requests them, so the whole result is never held in memory.
+     * @param queryName name of the query, which identifies the projection, the joins and the shape of the where clause.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the sort and the position to resume from.
+     * @param selectFrom creates the select, only called when the statement is not cached yet.
+     * @param where creates the condition with bind markers, or null. Only called when the statement is not cached yet.
+     * @return the statement, with the position bound.
+     */
+    public GenericExecuteSpec createStream(
+        String queryName,
+        Class<?> entityType,
+        Keyset keyset,
+        Supplier<? extends SelectWhere> selectFrom,
+        Supplier<Condition> where
+    ) {
+        String sql = createKeysetSelect(queryName, entityType, keyset, false, selectFrom, where);
+        return keyset.bindTo(r2dbcEntityTemplate.getDatabaseClient().sql(sql)).filter(statement -> statement.fetchSize(streamFetchSize));
+    }
+
+    private String createKeysetSelect(
+        String queryName,
+        Class<?> entityType,
+        Keyset keyset,
+        boolean limited,
+        Supplier<? extends SelectWhere> selectFrom,
+        Supplier<Condition> where
+    ) {
+        Sort sort = createKeysetSort(keyset);
+        String position = !keyset.hasPosition() ? KEYSET_FIRST : keyset.hasLastValue() ? KEYSET_AFTER_VALUE : KEYSET_AFTER_NULL;
+        StatementKey key = new StatementKey(entityType, queryName, limited ? position : STREAM + position, sort);
+        return statementCache.get(key, k -> {
+            SelectWhere select = selectFrom.get();
+            Condition condition = createKeysetCondition(entityType, keyset, where != null ? where.get() : null);
+            String rendered = createSelectImpl(condition != null ? select.where(condition) : select, entityType, sort);
+            return limited ? rendered + " LIMIT :" + LIMIT_MARKER : rendered;
+        });
+    }
+
     /**
      * Generate an actual SQL from the given {@link Select}.
      * @param select a representation of a select statement.
@@ -201,6 +346,115 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
     }
 
+    /**
+     * Inserts the entities with a single prepared statement, bound once per entity, so the statement is parsed once for
+     * the whole list. The entities are not modified.
+     * @param entityType the type of the entities.
+     * @param entities the new entities, without id.
+     * @return the generated ids, in the order of the entities.
+     */
+    public Flux<Object> insertAll(Class<?> entityType, List<?> entities) {
+        if (entities.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        List<SqlIdentifier> columns = getWritableColumns(entity);
+        String sql = statementCache.get(new StatementKey(entityType, BULK_INSERT, UNPAGED, Sort.unsorted()), k -> {
+            String columnList = columns.stream().map(SqlIdentifier::getReference).collect(Collectors.joining(", "));
+            String values = String.join(", ", Collections.nCopies(columns.size(), "?"));
+            return "INSERT INTO " + entity.getTableName().getReference() + " (" + columnList + ") VALUES (" + values + ")";
+        });
+        String idColumn = entity.getRequiredIdProperty().getColumnName().getReference();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(sql).returnGeneratedValues(idColumn);
+                bindAll(statement, entities, columns, null);
+                return Flux.from(statement.execute()).concatMap(result -> result.map((row, metadata) -> row.get(0)));
+            });
+    }
+
+    /**
+     * Updates the entities with a single prepared statement, bound once per entity. All the entities must exist.
+     * @param entityType the type of the entities.
+     * @param entities the existing entities.
+     * @return a Mono to signal the update.
+     */
+    public Mono<Void> updateAll(Class<?> entityType, List<?> entities) {
+        if (entities.isEmpty()) {
+            return Mono.empty();
+        }
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        List<SqlIdentifier> columns = getWritableColumns(entity);
+        SqlIdentifier idColumn = entity.getRequiredIdProperty().getColumnName();
+        String sql = statementCache.get(new StatementKey(entityType, BULK_UPDATE, UNPAGED, Sort.unsorted()), k -> {
+            String assignments = columns.stream().map(column -> column.getReference() + " = ?").collect(Collectors.joining(", "));
+            return "UPDATE " + entity.getTableName().getReference() + " SET " + assignments + " WHERE " + idColumn.getReference() + " = ?";
+        });
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(sql);
+                bindAll(statement, entities, columns, idColumn);
+                return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+            })
+            .then();
+    }
+
+    /**
+     * Returns which of the given ids exist.
+     * @param entityType the entity type which holds the table name.
+     * @param ids the ids to look for.
+     * @return the existing ids.
+     */
+    public Flux<Object> findExistingIds(Class<?> entityType, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        String idColumn = entity.getRequiredIdProperty().getColumnName().getReference();
+        String sql = "SELECT " + idColumn + " FROM " + entity.getTableName().getReference() + " WHERE " + idColumn + " IN (:ids)";
+        return r2dbcEntityTemplate.getDatabaseClient().sql(sql).bind("ids", ids).map((row, metadata) -> row.get(0)).all();
+    }
+
+    private void bindAll(Statement statement, List<?> entities, List<SqlIdentifier> columns, SqlIdentifier idColumn) {
+        for (int i = 0; i < entities.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            OutboundRow row = new OutboundRow();
+            r2dbcEntityTemplate.getConverter().write(entities.get(i), row);
+            for (int column = 0; column < columns.size(); column++) {
+                bind(statement, column, row.get(columns.get(column)));
+            }
+            if (idColumn != null) {
+                bind(statement, columns.size(), row.get(idColumn));
+            }
+        }
+    }
+
+    private static void bind(Statement statement, int index, Parameter parameter) {
+        if (parameter != null && parameter.hasValue()) {
+            statement.bind(index, parameter.getValue());
+        } else {
+            statement.bindNull(index, parameter != null ? parameter.getType() : Object.class);
+        }
+    }
+
+    private static List<SqlIdentifier> getWritableColumns(RelationalPersistentEntity<?> entity) {
+        List<SqlIdentifier> columns = new ArrayList<>();
+        for (RelationalPersistentProperty property : entity) {
+            if (!property.isIdProperty() && property.isWritable()) {
+                columns.add(property.getColumnName());
+            }
+        }
+        return columns;
+    }
+
+    private RelationalPersistentEntity<?> getRequiredPersistentEntity(Class<?> entityType) {
+        return r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
+    }
+
     private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
         if (sortParameter != null && sortParameter.isSorted()) {
             RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
@@ -214,6 +468,51 @@ public class EntityManager {
         return createSelect(selectFrom.build());
     }
 
+    private static Sort createKeysetSort(Keyset keyset) {
+        Sort sort = Sort.by(keyset.getDirection(), keyset.getProperty());
+        return keyset.isSortedById() ? sort : sort.and(Sort.by(Sort.Direction.ASC, Keyset.ID_PROPERTY));
+    }
+
+    /**
+     * Creates the condition selecting the rows after the keyset position, in the order of {@link #createKeysetSort}.
+     * MySQL sorts {@code null} values first in ascending, and last in descending order, which is taken into account here.
+     */
+    private Condition createKeysetCondition(Class<?> entityType, Keyset keyset, Condition where) {
+        if (!keyset.hasPosition()) {
+            return where;
+        }
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "Unknown entity type " + entityType);
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        Column id = table.column(entity.getRequiredIdProperty().getColumnName());
+        Expression lastId = SQL.bindMarker(":" + Keyset.ID_MARKER);
+        boolean ascending = keyset.getDirection().isAscending();
+
+        Condition condition;
+        if (keyset.isSortedById()) {
+            condition = ascending ? Conditions.isGreater(id, lastId) : Conditions.isLess(id, lastId);
+        } else {
+            RelationalPersistentProperty property = entity.getPersistentProperty(keyset.getProperty());
+            Assert.notNull(property, "Unknown sort property " + keyset.getProperty());
+            Column column = table.column(property.getColumnName());
+            Condition sameValueAfterId = Conditions.isGreater(id, lastId);
+            if (keyset.hasLastValue()) {
+                Expression lastValue = SQL.bindMarker(":" + Keyset.VALUE_MARKER);
+                sameValueAfterId = Conditions.isEqual(column, lastValue).and(sameValueAfterId);
+                condition = (ascending ? Conditions.isGreater(column, lastValue) : Conditions.isLess(column, lastValue)).or(
+                    Conditions.nest(sameValueAfterId)
+                );
+                if (!ascending) {
+                    condition = condition.or(Conditions.isNull(column));
+                }
+            } else {
+                sameValueAfterId = Conditions.isNull(column).and(sameValueAfterId);
+                condition = ascending ? Conditions.nest(sameValueAfterId).or(Conditions.isNull(column).not()) : sameValueAfterId;
+            }
+        }
+        return where != null ? where.and(Conditions.nest(condition)) : condition;
+    }
+
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
@@ -0,0 +1,75 @@
+package lms.repository;
+
+import java.time.Duration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository of the leases of the scheduled jobs, so a job runs on one node at a time.
+ * <p>
+ * A lease is held by its owner until it expires, and taken over by any node afterwards. The expiry is computed by the
+ * database, so the clocks of the nodes do not need to agree.
+ */
+@Repository
+public class JobLeaseRepository {
+
+    private final DatabaseClient db;
+
+    public JobLeaseRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Acquires or renews the given lease.
+     *
+     * @param name the name of the job.
+     * @param owner the unique name of the node.
+     * @param duration how long the lease is held, unless renewed or released.
+     * @return whether the lease is held by the owner.
+     */
+    public Mono<Boolean> acquire(String name, String owner, Duration duration) {
+        return db
+            .sql(
+                "UPDATE jhi_job_lease SET owner = :owner, locked_until = TIMESTAMPADD(SECOND, :seconds, UTC_TIMESTAMP(6))" +
+                " WHERE name = :name AND (owner = :owner OR locked_until < UTC_TIMESTAMP(6))"
+            )
+            .bind("name", name)
+            .bind("owner", owner)
+            .bind("seconds", duration.toSeconds())
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> updated > 0 ? Mono.just(updated) : insert(name, owner, duration))
+            .map(updated -> updated > 0);
+    }
+
+    private Mono<Long> insert(String name, String owner, Duration duration) {
+        return db
+            .sql(
+                "INSERT IGNORE INTO jhi_job_lease (name, owner, locked_until)" +
+                " VALUES (:name, :owner, TIMESTAMPADD(SECOND, :seconds, UTC_TIMESTAMP(6)))"
+            )
+            .bind("name", name)
+            .bind("owner", owner)
+            .bind("seconds", duration.toSeconds())
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Releases the given lease, if it is still held by the owner.
+     *
+     * @param name the name of the job.
+     * @param owner the unique name of the node.
+     * @return a Mono completing once released.
+     */
+    public Mono<Void> release(String name, String owner) {
+        return db
+            .sql("UPDATE jhi_job_lease SET locked_until = UTC_TIMESTAMP(6) WHERE name = :name AND owner = :owner")
+            .bind("name", name)
+            .bind("owner", owner)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+}
@@ -0,0 +1,168 @@
+package lms.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.util.Assert;
+
+/**
+ * Position of a keyset (seek) page: the property the rows are sorted on, and the sort value and id of the last row of the
+ * previous page. Rows are always ordered by the sort property first and by id second, so the position is unique.
+ * <p>
+ * The position is handed to clients as an opaque, url-safe token, see {@link #encode()} and {@link #decode(String)}.
+ */
+public final class Keyset {
+
+    public static final String ID_PROPERTY = "id";
+
+    static final String VALUE_MARKER = "keysetValue";
+    static final String ID_MARKER = "keysetId";
+
+    private static final char SEPARATOR = '\u0000';
+    private static final char NULL_VALUE = 'n';
+    private static final char PRESENT_VALUE = 'v';
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final String lastValue;
+
+    private Keyset(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        Assert.hasText(property, "property is empty");
+        Assert.notNull(direction, "direction is null");
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Creates the keyset of the first page, ordered by the first order of the given sort, or by id if it is unsorted.
+     * @param sort the requested sort.
+     * @return the keyset of the first page.
+     */
+    public static Keyset first(Sort sort) {
+        return sort
+            .stream()
+            .findFirst()
+            .map(order -> new Keyset(order.getProperty(), order.getDirection(), null, null))
+            .orElseGet(() -> new Keyset(ID_PROPERTY, Sort.Direction.ASC, null, null));
+    }
+
+    /**
+     * Creates the keyset ordered by id, positioned after the given id.
+     * @param lastId the id of the last row already read, or null to start with the first row.
+     * @return the keyset.
+     */
+    public static Keyset afterId(Long lastId) {
+        return new Keyset(ID_PROPERTY, Sort.Direction.ASC, lastId, null);
+    }
+
+    /**
+     * Restores a keyset from a token created by {@link #encode()}.
+     * @param token the opaque token.
+     * @return the keyset.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static Keyset decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(String.valueOf(SEPARATOR), 4);
+        if (parts.length != 4 || parts[2].isEmpty() || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Malformed keyset token");
+        }
+        String lastValue = parts[3].charAt(0) == PRESENT_VALUE ? parts[3].substring(1) : null;
+        return new Keyset(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]), lastValue);
+    }
+
+    /**
+     * Encodes this keyset as an opaque, url-safe token.
+     * @return the token.
+     */
+    public String encode() {
+        Assert.state(lastId != null, "The keyset of the first page has no position to encode");
+        String value = lastValue == null ? String.valueOf(NULL_VALUE) : PRESENT_VALUE + lastValue;
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the keyset of the page following the given entity.
+     * @param lastEntity the last entity of the current page.
+     * @return the keyset positioned after the entity.
+     */
+    public Keyset after(Object lastEntity) {
+        var accessor = PropertyAccessorFactory.forDirectFieldAccess(lastEntity);
+        Object id = accessor.getPropertyValue(ID_PROPERTY);
+        Assert.notNull(id, "The entity has no id");
+        Object value = accessor.getPropertyValue(property);
+        return new Keyset(property, direction, ((Number) id).longValue(), value != null ? value.toString() : null);
+    }
+
+    /**
+     * Binds the position of this keyset to the statement created by {@link EntityManager}.
+     * @param spec the statement.
+     * @return the statement with the bound position.
+     */
+    GenericExecuteSpec bindTo(GenericExecuteSpec spec) {
+        if (lastId == null) {
+            return spec;
+        }
+        spec = spec.bind(ID_MARKER, lastId);
+        return lastValue != null && !isSortedById() ? spec.bind(VALUE_MARKER, lastValue) : spec;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public boolean hasPosition() {
+        return lastId != null;
+    }
+
+    public boolean hasLastValue() {
+        return lastValue != null;
+    }
+
+    public boolean isSortedById() {
+        return ID_PROPERTY.equals(property);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Keyset keyset)) {
+            return false;
+        }
+        return (
+            property.equals(keyset.property) &&
+            direction == keyset.direction &&
+            Objects.equals(lastId, keyset.lastId) &&
+            Objects.equals(lastValue, keyset.lastValue)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, lastId, lastValue);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Keyset{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", lastId=" + lastId +
+            ", lastValue='" + lastValue + "'" +
+            "}";
+    }
+}
@@ -1,6 +1,10 @@
 package lms.repository;
 
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.function.BiFunction;
 import lms.domain.Student;
+import lms.domain.criteria.StudentCriteria;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -13,6 +17,10 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface StudentRepository extends ReactiveCrudRepository<Student, Long>, StudentRepositoryInternal {
+    String TABLE = "student";
+
+    String STUDENTS_BY_ID_CACHE = "studentsById";
+
     @Override
     <S extends Student> Mono<S> save(S entity);
 
@@ -31,9 +39,15 @@ interface StudentRepositoryInternal {
 
     Flux<Student> findAllBy(Pageable pageable);
 
+    Flux<Student> findAllBy(Keyset keyset, int pageSize);
+
+    Flux<Student> findAllBy(Keyset keyset, int pageSize, StudentCriteria criteria);
+
+    <T> Flux<T> streamAllAfter(Long lastId, BiFunction<Row, RowMetadata, T> mapper);
+
     Flux<Student> findAll();
 
     Mono<Student> findById(Long id);
-    // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
-    // Flux<Student> findAllBy(Pageable pageable, Criteria criteria);
+
+    Flux<Student> findAllBy(Pageable pageable, StudentCriteria criteria);
 }
@@ -3,23 +3,26 @@ package lms.repository;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import lms.domain.Student;
+import lms.domain.criteria.StudentCriteria;
 import lms.repository.rowmapper.StudentRowMapper;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -35,6 +38,10 @@ class StudentRepositoryInternalImpl extends SimpleR2dbcRepository<Student, Long>
 
     private final StudentRowMapper studentMapper;
 
+    private static final String ALL_QUERY = "all";
+    private static final String BY_ID_QUERY = "byId";
+    private static final String STREAM_QUERY = "stream";
+
     private static final Table entityTable = Table.aliased("student", EntityManager.ENTITY_ALIAS);
 
     public StudentRepositoryInternalImpl(
@@ -57,15 +64,63 @@ class StudentRepositoryInternalImpl extends SimpleR2dbcRepository<Student, Long>
 
     @Override
     public Flux<Student> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery(ALL_QUERY, pageable, null).map(studentMapper.compile("e")).all();
+    }
+
+    @Override
+    public Flux<Student> findAllBy(Pageable pageable, StudentCriteria criteria) {
+        CriteriaCondition condition = buildConditions(criteria);
+        return condition
+            .bindTo(createQuery(condition.queryName(ALL_QUERY), pageable, condition.where()))
+            .map(studentMapper.compile("e"))
+            .all();
+    }
+
+    @Override
+    public Flux<Student> findAllBy(Keyset keyset, int pageSize) {
+        return findAllBy(keyset, pageSize, new StudentCriteria());
+    }
+
+    @Override
+    public Flux<Student> findAllBy(Keyset keyset, int pageSize, StudentCriteria criteria) {
+        CriteriaCondition condition = buildConditions(criteria);
+        return condition
+            .bindTo(
+                entityManager.createSelect(
+                    condition.queryName(ALL_QUERY),
+                    Student.class,
+                    keyset,
+                    pageSize,
+                    this::createSelectFrom,
+                    condition.where()
+                )
+            )
+            .map(studentMapper.compile("e"))
+            .all();
     }
 
-    RowsFetchSpec<Student> createQuery(Pageable pageable, Condition whereClause) {
+    private CriteriaCondition buildConditions(StudentCriteria criteria) {
+        return new CriteriaCondition(entityTable)
+            .add("id", criteria.getId())
+            .add("reg_no", criteria.getReg_no())
+            .add("student_name", criteria.getStudent_name());
+    }
+
+    @Override
+    public <T> Flux<T> streamAllAfter(Long lastId, BiFunction<Row, RowMetadata, T> mapper) {
+        return entityManager
+            .createStream(STREAM_QUERY, Student.class, Keyset.afterId(lastId), this::createSelectFrom, null)
+            .map(mapper)
+            .all();
+    }
+
+    GenericExecuteSpec createQuery(String queryName, Pageable pageable, Supplier<Condition> whereClause) {
+        return entityManager.createSelect(queryName, Student.class, pageable, this::createSelectFrom, whereClause);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = StudentSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Student.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -75,13 +130,10 @@ class StudentRepositoryInternalImpl extends SimpleR2dbcRepository<Student, Long>
 
     @Override
     public Mono<Student> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
-    }
-
-    private Student process(Row row, RowMetadata metadata) {
-        Student entity = studentMapper.apply(row, "e");
-        return entity;
+        return createQuery(BY_ID_QUERY, null, () -> Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id")))
+            .bind("id", id)
+            .map(studentMapper.compile("e"))
+            .one();
     }
 
     @Override
@@ -0,0 +1,51 @@
+package lms.repository;
+
+import io.r2dbc.spi.Readable;
+import java.util.Optional;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository of the statistics the database keeps about its tables.
+ */
+@Repository
+public class TableStatisticsRepository {
+
+    private final DatabaseClient db;
+
+    public TableStatisticsRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Estimates the number of rows of a table from the statistics of InnoDB, without scanning it.
+     * <p>
+     * The estimate is read from the storage engine rather than from the statistics cached by the data dictionary, which
+     * are only refreshed daily by default. It may still be off by tens of percent, as InnoDB samples a few pages.
+     *
+     * @param table the name of the table, in the current schema.
+     * @return the estimated number of rows, or empty if the database has no statistics for the table.
+     */
+    public Mono<Long> estimateRowCount(String table) {
+        return db.inConnection(connection ->
+            Flux.from(connection.createStatement("SET SESSION information_schema_stats_expiry = 0").execute())
+                .flatMap(result -> result.getRowsUpdated())
+                .then(
+                    Flux.from(
+                        connection
+                            .createStatement(
+                                "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?"
+                            )
+                            .bind(0, table)
+                            .execute()
+                    )
+                        .flatMap(result -> result.map((Readable row) -> Optional.ofNullable(row.get(0, Number.class))))
+                        .next()
+                        .flatMap(Mono::justOrEmpty)
+                        .map(Number::longValue)
+                )
+        );
+    }
+}
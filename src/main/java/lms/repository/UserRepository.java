@@ -4,18 +4,24 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.stream.Collectors;
 import lms.domain.Authority;
 import lms.domain.User;
-import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -28,16 +34,39 @@ import reactor.util.function.Tuples;
  */
 @Repository
 public interface UserRepository extends R2dbcRepository<User, Long>, UserRepositoryInternal {
+    String TABLE = "jhi_user";
+
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
     Mono<User> findOneByActivationKey(String activationKey);
 
     Flux<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(LocalDateTime dateTime);
 
+    @Query(
+        "SELECT id FROM jhi_user WHERE activated = false AND activation_key IS NOT NULL AND created_date < :dateTime ORDER BY id LIMIT :limit"
+    )
+    Flux<Long> findIdsOfNotActivatedUsersCreatedBefore(LocalDateTime dateTime, int limit);
+
     Mono<User> findOneByResetKey(String resetKey);
 
     Mono<User> findOneByEmailIgnoreCase(String email);
 
     Mono<User> findOneByLogin(String login);
 
+    /**
+     * Gets the logins already used among the given ones.
+     */
+    @Query("SELECT login FROM jhi_user WHERE login IN (:logins)")
+    Flux<String> findExistingLogins(Collection<String> logins);
+
+    /**
+     * Gets the emails already used among the given ones, which are expected in lower case.
+     */
+    @Query("SELECT LOWER(email) FROM jhi_user WHERE email IN (:emails)")
+    Flux<String> findExistingEmails(Collection<String> emails);
+
     Flux<User> findAllByIdNotNull(Pageable pageable);
 
     Flux<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
@@ -50,8 +79,34 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
     @Query("DELETE FROM jhi_user_authority")
     Mono<Void> deleteAllUserAuthorities();
 
-    @Query("DELETE FROM jhi_user_authority WHERE user_id = :userId")
-    Mono<Void> deleteUserAuthorities(Long userId);
+    /**
+     * Deletes the authorities of the given users, unless they were activated meanwhile.
+     *
+     * @return the number of deleted authorities.
+     */
+    @Modifying
+    @Query(
+        "DELETE ua FROM jhi_user_authority ua JOIN jhi_user u ON u.id = ua.user_id WHERE ua.user_id IN (:userIds) AND u.activated = false"
+    )
+    Mono<Long> deleteAuthoritiesOfNotActivatedUsers(Collection<Long> userIds);
+
+    /**
+     * Deletes the given users, unless they were activated meanwhile.
+     *
+     * @return the number of deleted users.
+     */
+    @Modifying
+    @Query("DELETE FROM jhi_user WHERE id IN (:userIds) AND activated = false")
+    Mono<Long> deleteNotActivatedUsers(Collection<Long> userIds);
+
+    /**
+     * Replaces the password hash of the given user, unless it was changed since it was read.
+     *
+     * @return the number of updated users.
+     */
+    @Modifying
+    @Query("UPDATE jhi_user SET password_hash = :newPasswordHash WHERE login = :login AND password_hash = :oldPasswordHash")
+    Mono<Long> updatePasswordHash(String login, String oldPasswordHash, String newPasswordHash);
 }
 
 interface DeleteExtended<T> {
@@ -64,6 +119,12 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Mono<Void> insertUserAuthorities(Long userId, Collection<String> authorityNames);
+
+    Mono<Void> insertUserAuthorities(Map<Long, ? extends Collection<String>> authorityNamesByUserId);
+
+    Mono<Void> saveUserAuthorities(Long userId, Set<String> authorityNames);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
@@ -90,29 +151,19 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        // Page through jhi_user in SQL first, then fetch the authorities of that page only
+        Sort sort = pageable.getSort().getOrderFor("id") != null ? pageable.getSort() : pageable.getSort().and(Sort.by("id"));
+        org.springframework.data.relational.core.query.Query pageQuery = query(Criteria.empty()).sort(sort);
+        if (pageable.isPaged()) {
+            pageQuery = pageQuery.limit(pageable.getPageSize()).offset(pageable.getOffset());
+        }
 
-        return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map(
-                (row, metadata) ->
-                    Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
+        return r2dbcEntityTemplate
+            .select(User.class)
+            .matching(pageQuery)
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .collectList()
+            .flatMapMany(users -> users.isEmpty() ? Flux.empty() : withAuthorities(users));
     }
 
     @Override
@@ -124,6 +175,72 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .then(r2dbcEntityTemplate.delete(User.class).matching(query(where("id").is(user.getId()))).all().then());
     }
 
+    /**
+     * Inserts the given authorities of a user, with a single statement.
+     */
+    @Override
+    public Mono<Void> insertUserAuthorities(Long userId, Collection<String> authorityNames) {
+        return insertUserAuthorities(Map.of(userId, authorityNames));
+    }
+
+    /**
+     * Inserts the given authorities of many users, with a single statement.
+     */
+    @Override
+    public Mono<Void> insertUserAuthorities(Map<Long, ? extends Collection<String>> authorityNamesByUserId) {
+        List<Tuple2<Long, String>> rows = authorityNamesByUserId
+            .entrySet()
+            .stream()
+            .flatMap(entry -> entry.getValue().stream().map(name -> Tuples.of(entry.getKey(), name)))
+            .toList();
+        if (rows.isEmpty()) {
+            return Mono.empty();
+        }
+        StringJoiner values = new StringJoiner(", ", "INSERT INTO jhi_user_authority (user_id, authority_name) VALUES ", "");
+        for (int i = 0; i < rows.size(); i++) {
+            values.add("(:userId" + i + ", :authority" + i + ")");
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(values.toString());
+        for (int i = 0; i < rows.size(); i++) {
+            spec = spec.bind("userId" + i, rows.get(i).getT1()).bind("authority" + i, rows.get(i).getT2());
+        }
+        return spec.then();
+    }
+
+    /**
+     * Replaces the authorities of a user by the given ones, only deleting the removed ones and inserting the added ones.
+     * <p>
+     * The user is locked while its current authorities are read, so that the concurrent updates of a user, in their
+     * transactions, compute their differences one after the other instead of inserting the same authorities.
+     */
+    @Override
+    public Mono<Void> saveUserAuthorities(Long userId, Set<String> authorityNames) {
+        return db
+            .sql(
+                "SELECT ua.authority_name FROM jhi_user u LEFT JOIN jhi_user_authority ua ON ua.user_id = u.id " +
+                "WHERE u.id = :userId FOR UPDATE"
+            )
+            .bind("userId", userId)
+            .map(row -> Optional.ofNullable(row.get("authority_name", String.class)))
+            .all()
+            .flatMap(Mono::justOrEmpty)
+            .collect(Collectors.toSet())
+            .flatMap(current -> {
+                Set<String> removed = new HashSet<>(current);
+                removed.removeAll(authorityNames);
+                Set<String> added = new HashSet<>(authorityNames);
+                added.removeAll(current);
+                Mono<Void> delete = removed.isEmpty()
+                    ? Mono.empty()
+                    : db
+                        .sql("DELETE FROM jhi_user_authority WHERE user_id = :userId AND authority_name IN (:authorityNames)")
+                        .bind("userId", userId)
+                        .bind("authorityNames", removed)
+                        .then();
+                return delete.then(insertUserAuthorities(userId, added));
+            });
+    }
+
     private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
         return db
             .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
@@ -138,6 +255,32 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
     }
 
+    private Flux<User> withAuthorities(List<User> users) {
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        return db
+            .sql("SELECT user_id, authority_name FROM jhi_user_authority WHERE user_id IN (:userIds)")
+            .bind("userIds", userIds)
+            .map((row, metadata) -> Tuples.of(row.get("user_id", Long.class), row.get("authority_name", String.class)))
+            .all()
+            .collectMultimap(Tuple2::getT1, Tuple2::getT2)
+            .flatMapIterable(authoritiesByUserId -> {
+                users.forEach(user ->
+                    user.setAuthorities(
+                        authoritiesByUserId
+                            .getOrDefault(user.getId(), List.of())
+                            .stream()
+                            .map(name -> {
+                                Authority authority = new Authority();
+                                authority.setName(name);
+                                return authority;
+                            })
+                            .collect(Collectors.toSet())
+                    )
+                );
+                return users;
+            });
+    }
+
     private User updateUserWithAuthorities(User user, List<Tuple2<User, Optional<String>>> tuples) {
         user.setAuthorities(
             tuples
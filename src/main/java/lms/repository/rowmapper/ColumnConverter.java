@@ -1,7 +1,12 @@
 package lms.repository.rowmapper;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.Row;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.converter.GenericConverter.ConvertiblePair;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.lang.Nullable;
@@ -11,16 +16,28 @@ import tech.jhipster.service.ColumnConverterReactive;
 
 /**
  * This service provides helper function dealing with the low level {@link Row} and Spring's {@link R2dbcCustomConversions}, so type conversions can be applied.
+ * <p>
+ * How a source type is converted to a target type is decided on first use and cached per pair of types. Conversions
+ * which are not a plain cast are counted in the {@value #SLOW_CONVERSIONS_METER_NAME} meter, tagged with both types.
  */
 @Component
 public class ColumnConverter implements ColumnConverterReactive {
 
+    public static final String SLOW_CONVERSIONS_METER_NAME = "repository.column.slow-conversions";
+    public static final String SLOW_CONVERSIONS_METER_DESCRIPTION =
+        "Number of column values which are converted to the target type after reading.";
+    public static final String SLOW_CONVERSIONS_METER_BASE_UNIT = "conversions";
+
     private final ConversionService conversionService;
     private final R2dbcCustomConversions conversions;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<ConvertiblePair, Conversion> conversionCache = new ConcurrentHashMap<>();
 
-    public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter) {
+    public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter, MeterRegistry meterRegistry) {
         this.conversionService = r2dbcConverter.getConversionService();
         this.conversions = conversions;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -33,19 +50,10 @@ public class ColumnConverter implements ColumnConverterReactive {
     @Override
     @SuppressWarnings("unchecked")
     public <T> T convert(@Nullable Object value, @Nullable Class<T> target) {
-        if (value == null || target == null || ClassUtils.isAssignableValue(target, value)) {
+        if (value == null || target == null) {
             return (T) value;
         }
-
-        if (conversions.hasCustomReadTarget(value.getClass(), target)) {
-            return conversionService.convert(value, target);
-        }
-
-        if (Enum.class.isAssignableFrom(target)) {
-            return (T) Enum.valueOf((Class<Enum>) target, value.toString());
-        }
-
-        return conversionService.convert(value, target);
+        return (T) conversionCache.computeIfAbsent(new ConvertiblePair(value.getClass(), target), this::resolve).convert(value);
     }
 
     /**
@@ -57,12 +65,44 @@ public class ColumnConverter implements ColumnConverterReactive {
      * @return the value which can be constructed from the input.
      */
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
+        // read the value as decoded by default, instead of letting the driver reject the target type with an exception
+        return convert(row.get(columnName), target);
+    }
+
+    private Conversion resolve(ConvertiblePair pair) {
+        Class<?> source = pair.getSourceType();
+        Class<?> target = pair.getTargetType();
+        if (ClassUtils.isAssignable(target, source)) {
+            return value -> value;
+        }
+        Counter counter = Counter.builder(SLOW_CONVERSIONS_METER_NAME)
+            .description(SLOW_CONVERSIONS_METER_DESCRIPTION)
+            .baseUnit(SLOW_CONVERSIONS_METER_BASE_UNIT)
+            .tag("source", source.getName())
+            .tag("target", target.getName())
+            .register(meterRegistry);
+        if (!conversions.hasCustomReadTarget(source, target) && Enum.class.isAssignableFrom(target)) {
+            return value -> {
+                counter.increment();
+                return toEnum(target, value);
+            };
         }
+        return value -> {
+            counter.increment();
+            return conversionService.convert(value, target);
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object toEnum(Class<?> target, Object value) {
+        return Enum.valueOf((Class<Enum>) target, value.toString());
+    }
+
+    /**
+     * Conversion from one source type to one target type, as resolved by {@link #resolve(ConvertiblePair)}.
+     */
+    @FunctionalInterface
+    private interface Conversion {
+        Object convert(Object value);
     }
 }
@@ -1,6 +1,7 @@
 package lms.repository.rowmapper;
 
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.LocalDate;
 import java.util.function.BiFunction;
 import lms.domain.Courses;
@@ -12,6 +13,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class CoursesRowMapper implements BiFunction<Row, String, Courses> {
 
+    private static final String[] COLUMNS = { "id", "course_name", "start_date", "end_date", "student_id" };
+    private static final Class<?>[] TYPES = { Long.class, String.class, LocalDate.class, LocalDate.class, Long.class };
+
+    private static final int ID = 0;
+    private static final int COURSE_NAME = 1;
+    private static final int START_DATE = 2;
+    private static final int END_DATE = 3;
+    private static final int STUDENT_ID = 4;
+
     private final ColumnConverter converter;
 
     public CoursesRowMapper(ColumnConverter converter) {
@@ -24,12 +34,26 @@ public class CoursesRowMapper implements BiFunction<Row, String, Courses> {
      */
     @Override
     public Courses apply(Row row, String prefix) {
-        Courses entity = new Courses();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setCourse_name(converter.fromRow(row, prefix + "_course_name", String.class));
-        entity.setStart_date(converter.fromRow(row, prefix + "_start_date", LocalDate.class));
-        entity.setEnd_date(converter.fromRow(row, prefix + "_end_date", LocalDate.class));
-        entity.setStudentId(converter.fromRow(row, prefix + "_student_id", Long.class));
-        return entity;
+        return compile(prefix).apply(row, row.getMetadata());
+    }
+
+    /**
+     * Create a mapper for the columns with the given prefix, which resolves the column positions once per result. Create
+     * one per query.
+     * @param prefix the column prefix.
+     * @return the mapper.
+     */
+    public BiFunction<Row, RowMetadata, Courses> compile(String prefix) {
+        RowColumns columns = new RowColumns(converter, prefix, COLUMNS, TYPES);
+        return (row, metadata) -> {
+            RowColumns.Layout layout = columns.layout(metadata);
+            Courses entity = new Courses();
+            entity.setId(layout.get(row, ID, Long.class));
+            entity.setCourse_name(layout.get(row, COURSE_NAME, String.class));
+            entity.setStart_date(layout.get(row, START_DATE, LocalDate.class));
+            entity.setEnd_date(layout.get(row, END_DATE, LocalDate.class));
+            entity.setStudentId(layout.get(row, STUDENT_ID, Long.class));
+            return entity;
+        };
     }
 }
@@ -0,0 +1,100 @@
+package lms.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.springframework.util.Assert;
+
+/**
+ * The columns an entity is read from, selected with a common alias prefix.
+ * <p>
+ * The position of each column, and whether the driver decodes it to the target type directly, are resolved from the
+ * {@link RowMetadata} of the first row and reused for every following row of the same result. Mapping a row then needs
+ * neither column name lookups nor string concatenation. Instances are meant to be created per query, see
+ * {@link CoursesRowMapper#compile(String)}.
+ */
+public final class RowColumns {
+
+    private final ColumnConverter converter;
+    private final String[] names;
+    private final Class<?>[] types;
+
+    private Layout layout;
+
+    /**
+     * @param converter converts the values the driver can not decode to the target type.
+     * @param prefix the alias prefix of the columns.
+     * @param columns the names of the columns, without the prefix.
+     * @param types the target types, in the order of the columns.
+     */
+    public RowColumns(ColumnConverter converter, String prefix, String[] columns, Class<?>[] types) {
+        Assert.isTrue(columns.length == types.length, "Each column needs a target type");
+        this.converter = converter;
+        this.names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            this.names[i] = prefix + "_" + columns[i];
+        }
+        this.types = types;
+    }
+
+    /**
+     * Returns the layout of the columns in the result described by the metadata. It is only resolved again when the
+     * metadata is not the same instance as for the previous row.
+     * @param metadata the metadata of the current row.
+     * @return the layout.
+     */
+    public Layout layout(RowMetadata metadata) {
+        Layout current = layout;
+        if (current == null || current.metadata != metadata) {
+            current = new Layout(metadata);
+            layout = current;
+        }
+        return current;
+    }
+
+    /**
+     * Positions of the columns in one result, and how each one is decoded.
+     */
+    public final class Layout {
+
+        private final RowMetadata metadata;
+        private final int[] indices;
+        private final boolean[] direct;
+
+        private Layout(RowMetadata metadata) {
+            this.metadata = metadata;
+            this.indices = new int[names.length];
+            this.direct = new boolean[names.length];
+            List<? extends ColumnMetadata> columnMetadatas = metadata.getColumnMetadatas();
+            for (int i = 0; i < names.length; i++) {
+                indices[i] = indexOf(columnMetadatas, names[i]);
+                Class<?> javaType = columnMetadatas.get(indices[i]).getJavaType();
+                direct[i] = javaType != null && types[i].isAssignableFrom(javaType);
+            }
+        }
+
+        /**
+         * Reads the value of a column.
+         * @param row the current row.
+         * @param column the position of the column in the list given to {@link RowColumns}.
+         * @param type the target type of the column.
+         * @param <T> the target type.
+         * @return the value, converted to the target type.
+         */
+        public <T> T get(Row row, int column, Class<T> type) {
+            int index = indices[column];
+            return direct[column] ? row.get(index, type) : converter.convert(row.get(index), type);
+        }
+
+        private static int indexOf(List<? extends ColumnMetadata> columnMetadatas, String name) {
+            for (int i = 0; i < columnMetadatas.size(); i++) {
+                if (columnMetadatas.get(i).getName().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            throw new NoSuchElementException("Column '" + name + "' is not part of the result");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package lms.repository.rowmapper;
 
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.util.function.BiFunction;
 import lms.domain.Student;
 import org.springframework.stereotype.Service;
@@ -11,6 +12,13 @@ import org.springframework.stereotype.Service;
 @Service
 public class StudentRowMapper implements BiFunction<Row, String, Student> {
 
+    private static final String[] COLUMNS = { "id", "reg_no", "student_name" };
+    private static final Class<?>[] TYPES = { Long.class, String.class, String.class };
+
+    private static final int ID = 0;
+    private static final int REG_NO = 1;
+    private static final int STUDENT_NAME = 2;
+
     private final ColumnConverter converter;
 
     public StudentRowMapper(ColumnConverter converter) {
@@ -23,10 +31,24 @@ public class StudentRowMapper implements BiFunction<Row, String, Student> {
      */
     @Override
     public Student apply(Row row, String prefix) {
-        Student entity = new Student();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setReg_no(converter.fromRow(row, prefix + "_reg_no", String.class));
-        entity.setStudent_name(converter.fromRow(row, prefix + "_student_name", String.class));
-        return entity;
+        return compile(prefix).apply(row, row.getMetadata());
+    }
+
+    /**
+     * Create a mapper for the columns with the given prefix, which resolves the column positions once per result. Create
+     * one per query.
+     * @param prefix the column prefix.
+     * @return the mapper.
+     */
+    public BiFunction<Row, RowMetadata, Student> compile(String prefix) {
+        RowColumns columns = new RowColumns(converter, prefix, COLUMNS, TYPES);
+        return (row, metadata) -> {
+            RowColumns.Layout layout = columns.layout(metadata);
+            Student entity = new Student();
+            entity.setId(layout.get(row, ID, Long.class));
+            entity.setReg_no(layout.get(row, REG_NO, String.class));
+            entity.setStudent_name(layout.get(row, STUDENT_NAME, String.class));
+            return entity;
+        };
     }
 }
@@ -0,0 +1,81 @@
+package lms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveJwtDecoder} keeping the verified tokens until they expire, so the same bearer token is not parsed and
+ * verified again on every request.
+ * <p>
+ * The tokens are cached by their SHA-256 digest, so the cache does not hold the credentials themselves. Tokens without
+ * an expiry are never cached.
+ */
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    public static final String CACHE_NAME = "decodedTokens";
+
+    private final ReactiveJwtDecoder delegate;
+
+    private final Cache<ByteBuffer, Jwt> cache;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new UntilExpiry()).recordStats().build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        ByteBuffer key = digest(token);
+        Jwt cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate
+            .decode(token)
+            .doOnNext(jwt -> {
+                if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+                    cache.put(key, jwt);
+                }
+            });
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private class UntilExpiry implements Expiry<ByteBuffer, Jwt> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
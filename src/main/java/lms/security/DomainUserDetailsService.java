@@ -1,51 +1,108 @@
 package lms.security;
 
 import java.util.*;
+import java.util.function.Supplier;
 import lms.domain.Authority;
 import lms.domain.User;
 import lms.repository.UserRepository;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * The user details are cached by lowercase login and email, and evicted by {@link lms.service.UserService} when the
+ * user is saved or deleted, and again once the change is committed. Only activated users are cached: failed lookups are not.
+ * <p>
+ * The password hashes of an outdated encoder or cost are upgraded here on successful logins.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements ReactiveUserDetailsService {
+public class DomainUserDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
 
     private static final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    private static final EmailValidator EMAIL_VALIDATOR = new EmailValidator();
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final Cache usersByLoginCache;
+
+    private final Cache usersByEmailCache;
+
+    public DomainUserDetailsService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.usersByLoginCache = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+        this.usersByEmailCache = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Mono<UserDetails> findByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
-        if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
-                .switchIfEmpty(Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database")))
-                .map(user -> createSpringSecurityUser(login, user));
+        if (EMAIL_VALIDATOR.isValid(login, null)) {
+            String lowercaseEmail = login.toLowerCase(Locale.ENGLISH);
+            return cached(
+                usersByEmailCache,
+                lowercaseEmail,
+                () ->
+                    userRepository
+                        .findOneWithAuthoritiesByEmailIgnoreCase(lowercaseEmail)
+                        .switchIfEmpty(
+                            Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database"))
+                        )
+                        .map(user -> createSpringSecurityUser(login, user))
+            );
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+        return cached(
+            usersByLoginCache,
+            lowercaseLogin,
+            () ->
+                userRepository
+                    .findOneWithAuthoritiesByLogin(lowercaseLogin)
+                    .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
+                    .map(user -> createSpringSecurityUser(lowercaseLogin, user))
+        );
+    }
+
+    /**
+     * Stores the upgraded password hash of the given user, unless the password was changed in the meantime.
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        log.debug("Upgrading the password hash of {}", user.getUsername());
         return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
-            .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
-            .map(user -> createSpringSecurityUser(lowercaseLogin, user));
+            .updatePasswordHash(user.getUsername(), user.getPassword(), newPassword)
+            .filter(updated -> updated > 0)
+            .flatMap(updated -> userRepository.findOneByLogin(user.getUsername()))
+            .doOnNext(this::evict)
+            .thenReturn(org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build());
+    }
+
+    private void evict(User user) {
+        usersByLoginCache.evict(user.getLogin());
+        if (user.getEmail() != null) {
+            usersByEmailCache.evict(user.getEmail());
+        }
+    }
+
+    /**
+     * Returns the cached user details, or loads them once for all the concurrent lookups of the same key.
+     * Failed loads are not cached.
+     */
+    private Mono<UserDetails> cached(Cache cache, String key, Supplier<Mono<UserDetails>> loader) {
+        return Mono.fromFuture(() -> cache.retrieve(key, () -> loader.get().toFuture()), true);
     }
 
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
@@ -0,0 +1,49 @@
+package lms.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} recording the latency of the encoding and matching of the given encoder, as histograms.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    public static final String METER_NAME = "security.password.hashing";
+    public static final String METER_DESCRIPTION = "Time spent hashing passwords, to encode them or to match them against a hash.";
+    public static final String METER_OPERATION_DIMENSION = "operation";
+
+    private final PasswordEncoder delegate;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.encodeTimer = timerForOperation("encode").register(registry);
+        this.matchesTimer = timerForOperation("matches").register(registry);
+    }
+
+    private Timer.Builder timerForOperation(String operation) {
+        return Timer.builder(METER_NAME)
+            .description(METER_DESCRIPTION)
+            .tag(METER_OPERATION_DIMENSION, operation)
+            .publishPercentileHistogram();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
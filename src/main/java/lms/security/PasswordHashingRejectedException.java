@@ -0,0 +1,18 @@
+package lms.security;
+
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception is thrown when too many passwords are being hashed at the same time.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many concurrent authentications, please retry later")
+public class PasswordHashingRejectedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException() {
+        super("The password hashing pool is saturated");
+    }
+}
@@ -0,0 +1,106 @@
+package lms.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import lms.config.ApplicationProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the password hashing, which is deliberately slow, on a dedicated pool sized to the CPUs, so a burst of logins
+ * does not starve the request handling threads.
+ * <p>
+ * At most {@code threads + queue capacity} hashing operations are admitted at a time: the others fail fast with a
+ * {@link PasswordHashingRejectedException}, answered with a 503, instead of queueing behind the burst.
+ */
+@Component
+public class PasswordHashingScheduler implements DisposableBean {
+
+    public static final String REJECTED_METER_NAME = "security.password.hashing.rejected";
+    public static final String REJECTED_METER_DESCRIPTION =
+        "Number of password hashing operations rejected because the pool was saturated.";
+    public static final String REJECTED_METER_BASE_UNIT = "operations";
+
+    public static final String PENDING_METER_NAME = "security.password.hashing.pending";
+    public static final String PENDING_METER_DESCRIPTION = "Number of password hashing operations running or waiting for a thread.";
+
+    private final ExecutorService executor;
+
+    private final Scheduler scheduler;
+
+    private final int capacity;
+
+    private final Semaphore permits;
+
+    private final Counter rejectedCounter;
+
+    public PasswordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        int threads = security.getPasswordHashingThreads();
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("password-hashing-"));
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        this.capacity = threads + security.getPasswordHashingQueueCapacity();
+        this.permits = new Semaphore(capacity);
+        this.rejectedCounter = Counter.builder(REJECTED_METER_NAME)
+            .description(REJECTED_METER_DESCRIPTION)
+            .baseUnit(REJECTED_METER_BASE_UNIT)
+            .register(registry);
+        Gauge.builder(PENDING_METER_NAME, this, PasswordHashingScheduler::getPending)
+            .description(PENDING_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    /**
+     * @return the scheduler of the hashing pool, for the callers hashing passwords themselves within {@link #admit(Mono)}.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Admits the given work if the hashing pool is not saturated, and holds its admission until it terminates.
+     *
+     * @param work the work hashing passwords on {@link #getScheduler()}.
+     * @param <T> the type of the result.
+     * @return the result of the work, or a {@link PasswordHashingRejectedException} if the pool is saturated.
+     */
+    public <T> Mono<T> admit(Mono<T> work) {
+        return Mono.defer(() -> {
+            if (!permits.tryAcquire()) {
+                rejectedCounter.increment();
+                return Mono.error(new PasswordHashingRejectedException());
+            }
+            return work.doFinally(signal -> permits.release());
+        });
+    }
+
+    /**
+     * Runs the given hashing operation on the hashing pool, if it is not saturated.
+     *
+     * @param operation the operation, encoding or matching passwords.
+     * @param <T> the type of the result.
+     * @return the result of the operation, or a {@link PasswordHashingRejectedException} if the pool is saturated.
+     */
+    public <T> Mono<T> hash(Callable<T> operation) {
+        return admit(Mono.fromCallable(operation).subscribeOn(scheduler));
+    }
+
+    private int getPending() {
+        return capacity - permits.availablePermits();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
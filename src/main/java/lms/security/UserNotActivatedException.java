@@ -1,11 +1,11 @@
 package lms.security;
 
-import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.authentication.DisabledException;
 
 /**
  * This exception is thrown in case of a not activated user trying to authenticate.
  */
-public class UserNotActivatedException extends AuthenticationException {
+public class UserNotActivatedException extends DisabledException {
 
     private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,81 @@
+package lms.service;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import lms.domain.Authority;
+import lms.repository.AuthorityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Implementation for managing {@link lms.domain.Authority}.
+ * <p>
+ * The names of the authorities are cached as a whole: the table is tiny and read on every user creation and update.
+ * They are evicted on writes, and again once the transaction completes.
+ */
+@Service
+@Transactional
+public class AuthorityService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorityService.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private final Cache authorityNamesCache;
+
+    public AuthorityService(AuthorityRepository authorityRepository, CacheManager cacheManager) {
+        this.authorityRepository = authorityRepository;
+        this.authorityNamesCache = Objects.requireNonNull(cacheManager.getCache(AuthorityRepository.AUTHORITY_NAMES_CACHE));
+    }
+
+    /**
+     * Get the names of all the authorities. They are read from the primary, as a replica may not have the authority
+     * whose creation cleared the cache yet.
+     *
+     * @return the sorted names.
+     */
+    @Cacheable(cacheNames = AuthorityRepository.AUTHORITY_NAMES_CACHE, key = "'all'", sync = true)
+    public Mono<SortedSet<String>> findAllNames() {
+        return authorityRepository
+            .findAll()
+            .map(Authority::getName)
+            .collect(Collectors.toCollection(TreeSet::new))
+            .map(Collections::unmodifiableSortedSet);
+    }
+
+    /**
+     * Save an authority.
+     *
+     * @param authority the entity to save.
+     * @return the persisted entity.
+     */
+    public Mono<Authority> save(Authority authority) {
+        log.debug("Request to save Authority : {}", authority);
+        return authorityRepository.save(authority).flatMap(savedAuthority -> clearAuthorityNamesCache().thenReturn(savedAuthority));
+    }
+
+    /**
+     * Delete the authority by name.
+     *
+     * @param name the name of the authority.
+     * @return a Mono to signal the deletion
+     */
+    public Mono<Void> delete(String name) {
+        log.debug("Request to delete Authority : {}", name);
+        return authorityRepository.deleteById(name).then(Mono.defer(this::clearAuthorityNamesCache));
+    }
+
+    private Mono<Void> clearAuthorityNamesCache() {
+        authorityNamesCache.clear();
+        return TransactionCallbacks.afterCompletion(authorityNamesCache::clear);
+    }
+}
@@ -0,0 +1,119 @@
+package lms.service;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lms.config.ApplicationProperties;
+import lms.repository.EntityManager;
+import lms.service.dto.BulkResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service saving entities in batches, for the bulk endpoints.
+ * <p>
+ * Each batch runs in its own transaction. The new entities of a batch are inserted with one prepared statement, and the
+ * existing ones updated with another. When a batch fails, its items are saved one by one, so that only the failing
+ * items are reported as failed. A callback runs once each batch completes, committed, rolled back or cancelled, so the
+ * caches are evicted even when the request is abandoned midway.
+ */
+@Service
+public class BulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final int batchSize;
+
+    public BulkService(
+        EntityManager entityManager,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.transactionalOperator = transactionalOperator;
+        this.batchSize = applicationProperties.getRepository().getBulkBatchSize();
+    }
+
+    /**
+     * Save the entities: the ones without id are inserted, the others updated.
+     *
+     * @param entityType the type of the entities.
+     * @param entities the entities, saved in batches as they arrive.
+     * @param idOf returns the id of an entity.
+     * @param afterBatch runs once each batch completes, typically to evict the caches of the entities.
+     * @param <T> the type of the entities.
+     * @return the outcome for each entity, identified by its position in {@code entities}.
+     */
+    public <T> Flux<BulkResultDTO> saveAll(Class<T> entityType, Flux<T> entities, Function<T, Long> idOf, Runnable afterBatch) {
+        return entities
+            .index((index, entity) -> new Item<>(index, entity, idOf.apply(entity)))
+            .buffer(batchSize)
+            .concatMap(batch -> saveBatch(entityType, batch, afterBatch));
+    }
+
+    private <T> Flux<BulkResultDTO> saveBatch(Class<T> entityType, List<Item<T>> batch, Runnable afterBatch) {
+        return transactionalOperator
+            .transactional(saveItems(entityType, batch))
+            .doFinally(signal -> afterBatch.run())
+            .sort(Comparator.comparingLong(BulkResultDTO::getIndex))
+            .onErrorResume(e -> {
+                if (batch.size() == 1) {
+                    Item<T> item = batch.get(0);
+                    log.debug("Could not save item {} of the bulk request", item.index(), e);
+                    return Flux.just(BulkResultDTO.failed(item.index(), item.id(), errorOf(e)));
+                }
+                log.debug("Could not save a batch of {} items, saving them one by one", batch.size(), e);
+                return Flux.fromIterable(batch).concatMap(item -> saveBatch(entityType, List.of(item), afterBatch));
+            });
+    }
+
+    private <T> Flux<BulkResultDTO> saveItems(Class<T> entityType, List<Item<T>> batch) {
+        List<Item<T>> created = batch.stream().filter(item -> item.id() == null).toList();
+        List<Item<T>> updated = batch.stream().filter(item -> item.id() != null).toList();
+
+        Flux<BulkResultDTO> inserts = entityManager
+            .insertAll(entityType, entities(created))
+            .zipWithIterable(created, (id, item) -> BulkResultDTO.created(item.index(), ((Number) id).longValue()));
+        Flux<BulkResultDTO> updates = entityManager
+            .findExistingIds(entityType, updated.stream().map(Item::id).toList())
+            .map(id -> ((Number) id).longValue())
+            .collect(Collectors.toSet())
+            .flatMapMany(existing ->
+                entityManager
+                    .updateAll(entityType, entities(updated.stream().filter(item -> existing.contains(item.id())).toList()))
+                    .thenMany(Flux.fromIterable(updated).map(item -> updateResult(item, existing)))
+            );
+        return inserts.concatWith(updates);
+    }
+
+    private static BulkResultDTO updateResult(Item<?> item, Set<Long> existing) {
+        if (existing.contains(item.id())) {
+            return BulkResultDTO.updated(item.index(), item.id());
+        }
+        return BulkResultDTO.failed(item.index(), item.id(), BulkResultDTO.ERROR_NOT_FOUND);
+    }
+
+    private static List<Object> entities(List<? extends Item<?>> items) {
+        return items.stream().<Object>map(Item::entity).toList();
+    }
+
+    private static String errorOf(Throwable e) {
+        if (e instanceof DataIntegrityViolationException || e instanceof R2dbcDataIntegrityViolationException) {
+            return BulkResultDTO.ERROR_CONSTRAINT;
+        }
+        return BulkResultDTO.ERROR_UNEXPECTED;
+    }
+
+    private record Item<T>(long index, T entity, Long id) {}
+}
@@ -0,0 +1,283 @@
+package lms.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import lms.repository.CoursesRepository;
+import lms.repository.EntityManager;
+import lms.service.dto.CourseSuggestionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory prefix index of the names of the courses, suggesting courses while their name is typed.
+ * <p>
+ * Every word of a name is stored in a trie, with the ids of the courses it belongs to. The index is rebuilt from a
+ * streamed scan of the courses when the application is ready, and kept up to date by {@link CoursesService} as courses
+ * are saved and deleted. The courses changed while it is rebuilt are not overwritten by the scan.
+ */
+@Component
+public class CourseNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseNameIndex.class);
+
+    public static final String SIZE_METER_NAME = "courses.name.index.size";
+    public static final String SIZE_METER_DESCRIPTION = "Number of courses in the in-memory index of the course names.";
+    public static final String SIZE_METER_BASE_UNIT = "courses";
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final CoursesRepository coursesRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node root = new Node();
+
+    private final Map<Long, String> names = new HashMap<>();
+
+    /** The ids of the courses changed during the rebuild, or null when not rebuilding. */
+    private volatile Set<Long> changedDuringRebuild;
+
+    public CourseNameIndex(CoursesRepository coursesRepository, MeterRegistry registry) {
+        this.coursesRepository = coursesRepository;
+        Gauge.builder(SIZE_METER_NAME, this, CourseNameIndex::size)
+            .description(SIZE_METER_DESCRIPTION)
+            .baseUnit(SIZE_METER_BASE_UNIT)
+            .register(registry);
+    }
+
+    /**
+     * Rebuilds the index when the application is ready, without delaying the startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild().subscribe(null, e -> log.warn("Could not build the index of the course names", e));
+    }
+
+    /**
+     * Rebuilds the index from a streamed scan of the courses.
+     *
+     * @return the number of indexed courses.
+     */
+    public Mono<Long> rebuild() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Set<Long> changed = ConcurrentHashMap.newKeySet();
+            withWriteLock(() -> {
+                clear();
+                changedDuringRebuild = changed;
+            });
+            return coursesRepository
+                .streamAllAfter(
+                    null,
+                    (row, metadata) ->
+                        new CourseSuggestionDTO(
+                            row.get(EntityManager.ALIAS_PREFIX + "id", Long.class),
+                            row.get(EntityManager.ALIAS_PREFIX + "course_name", String.class)
+                        )
+                )
+                .doOnNext(course ->
+                    withWriteLock(() -> {
+                        if (!changed.contains(course.getId())) {
+                            index(course.getId(), course.getCourse_name());
+                        }
+                    })
+                )
+                .count()
+                .doOnSuccess(count -> log.info("Indexed the names of {} courses in {} ms", count, (System.nanoTime() - start) / 1_000_000))
+                .doFinally(signal -> changedDuringRebuild = null);
+        });
+    }
+
+    /**
+     * Indexes the name of a saved course, replacing its previous name.
+     *
+     * @param id the id of the course.
+     * @param name the name of the course, or null.
+     */
+    public void put(Long id, String name) {
+        withWriteLock(() -> {
+            markChanged(id);
+            unindex(id);
+            index(id, name);
+        });
+    }
+
+    /**
+     * Removes a deleted course from the index.
+     *
+     * @param id the id of the course.
+     */
+    public void remove(Long id) {
+        withWriteLock(() -> {
+            markChanged(id);
+            unindex(id);
+        });
+    }
+
+    /**
+     * Suggests the courses whose name has a word starting with each word of the given text.
+     *
+     * @param text the text typed so far.
+     * @param limit the maximum number of courses to return.
+     * @return the courses, ordered by their word matching the last word of the text.
+     */
+    public List<CourseSuggestionDTO> suggest(String text, int limit) {
+        List<String> words = words(text);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<String> others = words.subList(0, words.size() - 1);
+        lock.readLock().lock();
+        try {
+            Node node = find(words.get(words.size() - 1));
+            if (node == null) {
+                return List.of();
+            }
+            Set<Long> ids = new LinkedHashSet<>();
+            collect(node, others, ids, limit);
+            List<CourseSuggestionDTO> suggestions = new ArrayList<>(ids.size());
+            ids.forEach(id -> suggestions.add(new CourseSuggestionDTO(id, names.get(id))));
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed courses.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean collect(Node node, List<String> others, Set<Long> ids, int limit) {
+        for (Long id : node.ids) {
+            if (ids.size() >= limit) {
+                return true;
+            }
+            if (matchesAll(names.get(id), others)) {
+                ids.add(id);
+            }
+        }
+        for (Node child : node.children.values()) {
+            if (collect(child, others, ids, limit)) {
+                return true;
+            }
+        }
+        return ids.size() >= limit;
+    }
+
+    private static boolean matchesAll(String name, List<String> prefixes) {
+        if (prefixes.isEmpty()) {
+            return true;
+        }
+        List<String> words = words(name);
+        return prefixes.stream().allMatch(prefix -> words.stream().anyMatch(word -> word.startsWith(prefix)));
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private void index(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        names.put(id, name);
+        for (String word : new HashSet<>(words(name))) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+            }
+            node.ids.add(id);
+        }
+    }
+
+    private void unindex(Long id) {
+        String name = names.remove(id);
+        if (name != null) {
+            new HashSet<>(words(name)).forEach(word -> unindex(root, word, 0, id));
+        }
+    }
+
+    /**
+     * Removes the id from the word, and the nodes left empty.
+     *
+     * @return whether the node is left empty.
+     */
+    private static boolean unindex(Node node, String word, int depth, Long id) {
+        if (depth == word.length()) {
+            node.ids.remove(id);
+        } else {
+            Node child = node.children.get(word.charAt(depth));
+            if (child != null && unindex(child, word, depth + 1, id)) {
+                node.children.remove(word.charAt(depth));
+            }
+        }
+        return node.ids.isEmpty() && node.children.isEmpty();
+    }
+
+    private void clear() {
+        root.children.clear();
+        root.ids.clear();
+        names.clear();
+    }
+
+    private void markChanged(Long id) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(id);
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))).filter(word -> !word.isEmpty()).toList();
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new TreeMap<>();
+
+        /** The ids of the courses with this word, in the order they were indexed. */
+        private final Set<Long> ids = new LinkedHashSet<>();
+    }
+}
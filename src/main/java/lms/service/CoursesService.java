@@ -1,11 +1,28 @@
 package lms.service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import lms.domain.Courses;
+import lms.domain.criteria.CoursesCriteria;
 import lms.repository.CoursesRepository;
+import lms.repository.EntityManager;
+import lms.repository.Keyset;
+import lms.service.dto.BulkResultDTO;
+import lms.service.dto.CourseSuggestionDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -21,8 +38,30 @@ public class CoursesService {
 
     private final CoursesRepository coursesRepository;
 
-    public CoursesService(CoursesRepository coursesRepository) {
+    private final ExportService exportService;
+
+    private final BulkService bulkService;
+
+    private final CourseNameIndex courseNameIndex;
+
+    private final RowCountService rowCountService;
+
+    private final Cache coursesByIdCache;
+
+    public CoursesService(
+        CoursesRepository coursesRepository,
+        ExportService exportService,
+        BulkService bulkService,
+        CourseNameIndex courseNameIndex,
+        RowCountService rowCountService,
+        CacheManager cacheManager
+    ) {
         this.coursesRepository = coursesRepository;
+        this.exportService = exportService;
+        this.bulkService = bulkService;
+        this.courseNameIndex = courseNameIndex;
+        this.rowCountService = rowCountService;
+        this.coursesByIdCache = Objects.requireNonNull(cacheManager.getCache(CoursesRepository.COURSES_BY_ID_CACHE));
     }
 
     /**
@@ -31,9 +70,51 @@ public class CoursesService {
      * @param courses the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, key = "#courses.id", condition = "#courses.id != null")
     public Mono<Courses> save(Courses courses) {
         log.debug("Request to save Courses : {}", courses);
-        return coursesRepository.save(courses);
+        boolean created = courses.getId() == null;
+        return coursesRepository
+            .save(courses)
+            .doOnNext(this::index)
+            .doOnNext(saved -> {
+                if (created) {
+                    rowCountService.increment(CoursesRepository.TABLE, 1);
+                }
+            });
+    }
+
+    /**
+     * Save courses in batches: the ones without id are created, the others updated. The cached courses are evicted
+     * after each batch.
+     *
+     * @param courses the courses to save.
+     * @return the outcome for each courses, in the order of the request.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkResultDTO> saveAll(Flux<Courses> courses) {
+        log.debug("Request to save Courses in bulk");
+        // The names are held until the outcome of their batch is known, to index the saved courses
+        Map<Long, String> names = new ConcurrentHashMap<>();
+        AtomicLong index = new AtomicLong();
+        return bulkService
+            .saveAll(
+                Courses.class,
+                courses.doOnNext(course -> names.put(index.getAndIncrement(), Objects.toString(course.getCourse_name(), ""))),
+                Courses::getId,
+                coursesByIdCache::clear
+            )
+            .doOnNext(result -> {
+                String name = names.remove(result.getIndex());
+                if (result.getStatus() != BulkResultDTO.Status.FAILED) {
+                    courseNameIndex.put(result.getId(), name);
+                }
+                if (result.getStatus() == BulkResultDTO.Status.CREATED) {
+                    rowCountService.increment(CoursesRepository.TABLE, 1);
+                }
+            })
+            // The outcome of a batch committed meanwhile may never be reported
+            .doOnCancel(() -> rowCountService.invalidate(CoursesRepository.TABLE));
     }
 
     /**
@@ -42,9 +123,10 @@ public class CoursesService {
      * @param courses the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, key = "#courses.id")
     public Mono<Courses> update(Courses courses) {
         log.debug("Request to update Courses : {}", courses);
-        return coursesRepository.save(courses);
+        return coursesRepository.save(courses).doOnNext(this::index);
     }
 
     /**
@@ -53,6 +135,7 @@ public class CoursesService {
      * @param courses the entity to update partially.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, key = "#courses.id")
     public Mono<Courses> partialUpdate(Courses courses) {
         log.debug("Request to partially update Courses : {}", courses);
 
@@ -71,11 +154,16 @@ public class CoursesService {
 
                 return existingCourses;
             })
-            .flatMap(coursesRepository::save);
+            .flatMap(coursesRepository::save)
+            .doOnNext(this::index);
+    }
+
+    private void index(Courses courses) {
+        courseNameIndex.put(courses.getId(), courses.getCourse_name());
     }
 
     /**
-     * Get all the courses.
+     * Get all the courses, without loading their student.
      *
      * @return the list of entities.
      */
@@ -85,6 +173,18 @@ public class CoursesService {
         return coursesRepository.findAll();
     }
 
+    /**
+     * Get the courses matching the criteria, without loading their student.
+     *
+     * @param criteria the filters of the courses.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Courses> findByCriteria(CoursesCriteria criteria) {
+        log.debug("Request to get all Courses by Criteria : {}", criteria);
+        return coursesRepository.findAllBy(null, criteria);
+    }
+
     /**
      * Get all the courses with eager load of many-to-many relationships.
      *
@@ -94,22 +194,65 @@ public class CoursesService {
         return coursesRepository.findAllWithEagerRelationships(pageable);
     }
 
+    /**
+     * Get the courses matching the criteria, with eager load of many-to-many relationships.
+     *
+     * @param pageable the pagination information.
+     * @param criteria the filters of the courses.
+     * @return the list of entities.
+     */
+    public Flux<Courses> findAllWithEagerRelationships(Pageable pageable, CoursesCriteria criteria) {
+        return coursesRepository.findAllWithEagerRelationships(pageable, criteria);
+    }
+
+    /**
+     * Get a page of the courses matching the criteria, seeking to the position of the keyset.
+     *
+     * @param keyset the sort and position of the page.
+     * @param pageSize the maximum number of entities to return.
+     * @param criteria the filters of the courses.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Courses> findAllBy(Keyset keyset, int pageSize, CoursesCriteria criteria) {
+        log.debug("Request to get a page of Courses after : {} by Criteria : {}", keyset, criteria);
+        return coursesRepository.findAllBy(keyset, pageSize, criteria);
+    }
+
+    /**
+     * Export the courses ordered by id, as one buffer per row. The rows are streamed from the database as the buffers are
+     * consumed, outside of a transaction, so an export neither holds the rows in memory nor keeps a transaction open.
+     *
+     * @param lastId the id of the last courses already exported, or null to start with the first one.
+     * @param format the format of the rows.
+     * @param bufferFactory the factory of the buffers.
+     * @return the rows.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<DataBuffer> export(Long lastId, ExportService.Format format, DataBufferFactory bufferFactory) {
+        log.debug("Request to export Courses after : {}", lastId);
+        return coursesRepository.streamAllAfter(lastId, exportService.writer(format, EntityManager.ALIAS_PREFIX, bufferFactory));
+    }
+
     /**
      * Returns the number of courses available.
+     * @param mode how the courses are counted.
      * @return the number of entities in the database.
      *
      */
-    public Mono<Long> countAll() {
-        return coursesRepository.count();
+    @Transactional(readOnly = true)
+    public Mono<Long> countAll(RowCountService.Mode mode) {
+        return rowCountService.count(CoursesRepository.TABLE, mode, coursesRepository::count);
     }
 
     /**
-     * Get one courses by id.
+     * Get one courses by id, from the primary: reloaded from a lagging replica after an eviction, the courses would be
+     * cached stale until they expire.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, sync = true)
     public Mono<Courses> findOne(Long id) {
         log.debug("Request to get Courses : {}", id);
         return coursesRepository.findOneWithEagerRelationships(id);
@@ -121,8 +264,39 @@ public class CoursesService {
      * @param id the id of the entity.
      * @return a Mono to signal the deletion
      */
+    @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE)
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Courses : {}", id);
-        return coursesRepository.deleteById(id);
+        return coursesRepository
+            .deleteById(id)
+            .doOnSuccess(deleted -> {
+                courseNameIndex.remove(id);
+                // Whether a row was deleted is not known
+                rowCountService.invalidate(CoursesRepository.TABLE);
+            });
+    }
+
+    /**
+     * Search the courses by name, with the full-text index of the database.
+     *
+     * @param query the words to search, each matching the start of a word of the name.
+     * @param limit the maximum number of entities to return.
+     * @return the entities, the most relevant first.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Courses> search(String query, int limit) {
+        log.debug("Request to search Courses : {}", query);
+        return coursesRepository.search(query, limit);
+    }
+
+    /**
+     * Suggest the courses whose name starts with the text typed so far, from the in-memory index of the names.
+     *
+     * @param text the text typed so far.
+     * @param limit the maximum number of courses to return.
+     * @return the suggested courses.
+     */
+    public List<CourseSuggestionDTO> suggest(String text, int limit) {
+        return courseNameIndex.suggest(text, limit);
     }
 }
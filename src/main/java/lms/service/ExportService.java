@@ -0,0 +1,184 @@
+package lms.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service writing database rows straight into {@link DataBuffer}s, one buffer per row, for the export endpoints.
+ * <p>
+ * Rows are written without creating entities. The fields are named after the selected columns, without the given
+ * prefix.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Returns the format with the given name, ignoring case.
+         * @param name the name of the format.
+         * @return the format, or empty if it is unknown.
+         */
+        public static Optional<Format> fromName(String name) {
+            return Arrays.stream(values()).filter(format -> format.name().equalsIgnoreCase(name)).findFirst();
+        }
+    }
+
+    private static final int INITIAL_ROW_CAPACITY = 256;
+
+    private final ObjectMapper objectMapper;
+
+    public ExportService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates the writer of one export. Create one per export: the CSV writer prepends the header to the first row.
+     *
+     * @param format the format of the rows.
+     * @param columnPrefix the prefix of the selected column names, stripped from the field names.
+     * @param bufferFactory the factory of the buffers, usually the one of the response.
+     * @return the writer, turning each row into a buffer.
+     */
+    public BiFunction<Row, RowMetadata, DataBuffer> writer(Format format, String columnPrefix, DataBufferFactory bufferFactory) {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(columnPrefix, bufferFactory);
+            case CSV -> new CsvWriter(columnPrefix, bufferFactory);
+        };
+    }
+
+    private abstract static class RowWriter implements BiFunction<Row, RowMetadata, DataBuffer> {
+
+        private final String columnPrefix;
+        private final DataBufferFactory bufferFactory;
+
+        private RowMetadata metadata;
+        protected String[] fieldNames;
+
+        RowWriter(String columnPrefix, DataBufferFactory bufferFactory) {
+            this.columnPrefix = columnPrefix;
+            this.bufferFactory = bufferFactory;
+        }
+
+        @Override
+        public DataBuffer apply(Row row, RowMetadata rowMetadata) {
+            DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_ROW_CAPACITY);
+            try {
+                if (metadata != rowMetadata) {
+                    boolean first = metadata == null;
+                    metadata = rowMetadata;
+                    fieldNames = fieldNames(rowMetadata.getColumnMetadatas());
+                    if (first) {
+                        writeHeader(buffer);
+                    }
+                }
+                writeRow(row, buffer);
+                return buffer;
+            } catch (IOException e) {
+                DataBufferUtils.release(buffer);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                DataBufferUtils.release(buffer);
+                throw e;
+            }
+        }
+
+        private String[] fieldNames(List<? extends ColumnMetadata> columnMetadatas) {
+            String[] names = new String[columnMetadatas.size()];
+            for (int i = 0; i < names.length; i++) {
+                String name = columnMetadatas.get(i).getName();
+                names[i] = name.startsWith(columnPrefix) ? name.substring(columnPrefix.length()) : name;
+            }
+            return names;
+        }
+
+        void writeHeader(DataBuffer buffer) throws IOException {}
+
+        abstract void writeRow(Row row, DataBuffer buffer) throws IOException;
+    }
+
+    private class NdjsonWriter extends RowWriter {
+
+        NdjsonWriter(String columnPrefix, DataBufferFactory bufferFactory) {
+            super(columnPrefix, bufferFactory);
+        }
+
+        @Override
+        void writeRow(Row row, DataBuffer buffer) throws IOException {
+            try (JsonGenerator generator = objectMapper.createGenerator(buffer.asOutputStream())) {
+                generator.writeStartObject();
+                for (int i = 0; i < fieldNames.length; i++) {
+                    generator.writeFieldName(fieldNames[i]);
+                    generator.writeObject(row.get(i));
+                }
+                generator.writeEndObject();
+            }
+            buffer.write((byte) '\n');
+        }
+    }
+
+    private static class CsvWriter extends RowWriter {
+
+        CsvWriter(String columnPrefix, DataBufferFactory bufferFactory) {
+            super(columnPrefix, bufferFactory);
+        }
+
+        @Override
+        void writeHeader(DataBuffer buffer) {
+            for (int i = 0; i < fieldNames.length; i++) {
+                writeValue(buffer, i, fieldNames[i]);
+            }
+        }
+
+        @Override
+        void writeRow(Row row, DataBuffer buffer) {
+            for (int i = 0; i < fieldNames.length; i++) {
+                writeValue(buffer, i, row.get(i));
+            }
+        }
+
+        private void writeValue(DataBuffer buffer, int column, Object value) {
+            if (column > 0) {
+                buffer.write((byte) ',');
+            }
+            if (value != null) {
+                String text = value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    buffer.write('"' + text.replace("\"", "\"\"") + '"', StandardCharsets.UTF_8);
+                } else {
+                    buffer.write(text, StandardCharsets.UTF_8);
+                }
+            }
+            if (column == fieldNames.length - 1) {
+                buffer.write("\r\n", StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package lms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lms.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded queue of the emails to send, drained by a dedicated pool of workers so the blocking SMTP calls never run on
+ * the request handling threads.
+ * <p>
+ * Each worker takes up to {@code batch size} queued emails and sends them over a single SMTP connection. The sending
+ * rate is limited across the workers, and the failed emails are queued again after an exponential backoff until they
+ * run out of attempts. When the queue is full, new emails are dropped rather than blocking their callers.
+ */
+@Component
+public class MailOutbox implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutbox.class);
+
+    public static final String SIZE_METER_NAME = "mail.outbox.size";
+    public static final String SIZE_METER_DESCRIPTION = "Number of emails waiting to be sent.";
+
+    public static final String SEND_METER_NAME = "mail.outbox.send";
+    public static final String SEND_METER_DESCRIPTION = "Time taken to send a batch of emails over one SMTP connection.";
+
+    public static final String MESSAGES_METER_NAME = "mail.outbox.messages";
+    public static final String MESSAGES_METER_DESCRIPTION = "Number of emails by result: sent, retried, failed or rejected.";
+    public static final String MESSAGES_METER_BASE_UNIT = "messages";
+
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final JavaMailSender javaMailSender;
+
+    private final ApplicationProperties.Mail properties;
+
+    private final BlockingQueue<OutboundMail> queue;
+
+    private final ExecutorService workers;
+
+    private final ScheduledExecutorService retries;
+
+    private final long permitIntervalNanos;
+
+    private long nextPermitNanos = System.nanoTime();
+
+    private volatile boolean running = true;
+
+    private final Timer sendTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter rejectedCounter;
+
+    public MailOutbox(JavaMailSender javaMailSender, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this.javaMailSender = javaMailSender;
+        this.properties = applicationProperties.getMail();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), new CustomizableThreadFactory("mail-outbox-"));
+        this.retries = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("mail-outbox-retry-"));
+        int rateLimit = properties.getRateLimitPerSecond();
+        this.permitIntervalNanos = rateLimit > 0 ? TimeUnit.SECONDS.toNanos(1) / rateLimit : 0;
+
+        Gauge.builder(SIZE_METER_NAME, queue, BlockingQueue::size).description(SIZE_METER_DESCRIPTION).register(registry);
+        this.sendTimer = Timer.builder(SEND_METER_NAME).description(SEND_METER_DESCRIPTION).publishPercentileHistogram().register(registry);
+        this.sentCounter = messagesCounter(registry, "sent");
+        this.retriedCounter = messagesCounter(registry, "retried");
+        this.failedCounter = messagesCounter(registry, "failed");
+        this.rejectedCounter = messagesCounter(registry, "rejected");
+    }
+
+    private static Counter messagesCounter(MeterRegistry registry, String result) {
+        return Counter.builder(MESSAGES_METER_NAME)
+            .description(MESSAGES_METER_DESCRIPTION)
+            .baseUnit(MESSAGES_METER_BASE_UNIT)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * Queues the given email, without waiting for it to be sent.
+     *
+     * @param message the prepared email.
+     * @return {@code true} if the email was queued, {@code false} if it was dropped because the queue is full.
+     */
+    public boolean offer(MimeMessage message) {
+        return enqueue(new OutboundMail(message, 1));
+    }
+
+    private boolean enqueue(OutboundMail mail) {
+        if (!running || !queue.offer(mail)) {
+            rejectedCounter.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    private void work() {
+        List<OutboundMail> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                OutboundMail first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                throttle(batch.size());
+                sendTimer.record(() -> send(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error while sending {} emails", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void throttle(int messages) throws InterruptedException {
+        if (permitIntervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long start;
+        synchronized (this) {
+            start = Math.max(nextPermitNanos, now);
+            nextPermitNanos = start + messages * permitIntervalNanos;
+        }
+        TimeUnit.NANOSECONDS.sleep(start - now);
+    }
+
+    private void send(List<OutboundMail> batch) {
+        try {
+            if (batch.size() == 1) {
+                javaMailSender.send(batch.get(0).message());
+            } else {
+                javaMailSender.send(batch.stream().map(OutboundMail::message).toArray(MimeMessage[]::new));
+            }
+            sentCounter.increment(batch.size());
+        } catch (MailSendException e) {
+            // Without failed messages, the connection itself failed and none of them was sent
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (OutboundMail mail : batch) {
+                if (failedMessages.isEmpty() || failedMessages.containsKey(mail.message())) {
+                    retry(mail, failedMessages.getOrDefault(mail.message(), e));
+                } else {
+                    sentCounter.increment();
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> retry(mail, e));
+        }
+    }
+
+    private void retry(OutboundMail mail, Exception cause) {
+        String recipients = recipients(mail.message());
+        if (!running || mail.attempts() >= properties.getMaxAttempts()) {
+            failedCounter.increment();
+            log.warn("Email could not be sent to '{}' after {} attempts", recipients, mail.attempts(), cause);
+            return;
+        }
+        retriedCounter.increment();
+        long backoffMillis = properties.getRetryBackoffMillis() << (mail.attempts() - 1);
+        log.debug("Email could not be sent to '{}', sending it again in {} ms: {}", recipients, backoffMillis, cause.getMessage());
+        retries.schedule(
+            () -> {
+                if (!enqueue(new OutboundMail(mail.message(), mail.attempts() + 1))) {
+                    log.warn("Email to '{}' dropped, the outbox is full", recipients);
+                }
+            },
+            backoffMillis,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    private static String recipients(MimeMessage message) {
+        try {
+            return message.getHeader("To", ", ");
+        } catch (MessagingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of emails waiting to be sent.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        retries.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("{} emails not sent before shutdown", queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    private record OutboundMail(MimeMessage message, int attempts) {}
+}
@@ -3,60 +3,49 @@ package lms.service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
-import java.util.Locale;
+import java.util.Collection;
+import java.util.List;
 import lms.domain.User;
+import lms.service.MailTemplateRenderer.MailTemplate;
+import lms.service.MailTemplateRenderer.RenderedMail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
-import reactor.core.publisher.Mono;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
  * Service for sending emails asynchronously.
+ * <p>
+ * The emails are prepared by the caller and sent by the {@link MailOutbox}.
  */
 @Service
 public class MailService {
 
     private static final Logger log = LoggerFactory.getLogger(MailService.class);
 
-    private static final String USER = "user";
-
-    private static final String BASE_URL = "baseUrl";
-
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
 
-    private final MessageSource messageSource;
+    private final MailOutbox mailOutbox;
 
-    private final SpringTemplateEngine templateEngine;
+    private final MailTemplateRenderer mailTemplateRenderer;
 
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
-        MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        MailOutbox mailOutbox,
+        MailTemplateRenderer mailTemplateRenderer
     ) {
         this.jHipsterProperties = jHipsterProperties;
         this.javaMailSender = javaMailSender;
-        this.messageSource = messageSource;
-        this.templateEngine = templateEngine;
+        this.mailOutbox = mailOutbox;
+        this.mailTemplateRenderer = mailTemplateRenderer;
     }
 
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
-        Mono.defer(() -> {
-            this.sendEmailSync(to, subject, content, isMultipart, isHtml);
-            return Mono.empty();
-        }).subscribe();
-    }
-
-    private void sendEmailSync(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
             "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
@@ -74,46 +63,51 @@ public class MailService {
             message.setFrom(jHipsterProperties.getMail().getFrom());
             message.setSubject(subject);
             message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
+            if (mailOutbox.offer(mimeMessage)) {
+                log.debug("Queued email to User '{}'", to);
+            } else {
+                log.warn("Email could not be queued for user '{}', the outbox is full", to);
+            }
+        } catch (MessagingException e) {
+            log.warn("Email could not be prepared for user '{}'", to, e);
         }
     }
 
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
-        Mono.defer(() -> {
-            this.sendEmailFromTemplateSync(user, templateName, titleKey);
-            return Mono.empty();
-        }).subscribe();
-    }
-
-    private void sendEmailFromTemplateSync(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
         }
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        this.sendEmailSync(user.getEmail(), subject, content, false, true);
+        RenderedMail mail = mailTemplateRenderer.render(user, templateName, titleKey);
+        this.sendEmail(user.getEmail(), mail.subject(), mail.content(), false, true);
+    }
+
+    /**
+     * Sends the same template to many users, such as the activation emails of an import, rendering them in one go.
+     *
+     * @param users the users, those without an email are skipped.
+     * @param template the template.
+     */
+    public void sendEmailsFromTemplate(Collection<User> users, MailTemplate template) {
+        List<User> recipients = users.stream().filter(user -> user.getEmail() != null).toList();
+        log.debug("Sending {} emails from template '{}'", recipients.size(), template.name());
+        for (RenderedMail mail : mailTemplateRenderer.renderAll(recipients, template.name(), template.titleKey())) {
+            this.sendEmail(mail.user().getEmail(), mail.subject(), mail.content(), false, true);
+        }
     }
 
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        this.sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        this.sendEmailFromTemplate(user, MailTemplateRenderer.ACTIVATION.name(), MailTemplateRenderer.ACTIVATION.titleKey());
     }
 
     public void sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        this.sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        this.sendEmailFromTemplate(user, MailTemplateRenderer.CREATION.name(), MailTemplateRenderer.CREATION.titleKey());
     }
 
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        this.sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+        this.sendEmailFromTemplate(user, MailTemplateRenderer.PASSWORD_RESET.name(), MailTemplateRenderer.PASSWORD_RESET.titleKey());
     }
 }
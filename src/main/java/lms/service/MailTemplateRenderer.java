@@ -0,0 +1,142 @@
+package lms.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lms.config.ApplicationProperties;
+import lms.domain.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Renders the email templates of the users, and their subjects.
+ * <p>
+ * The templates are parsed once by the template engine, which caches them unless {@code spring.thymeleaf.cache} is
+ * disabled, and the subjects are resolved once per locale. Both are warmed up for the configured languages when the
+ * application is ready, so the first emails of a campaign do not pay for them.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    public static final MailTemplate ACTIVATION = new MailTemplate("mail/activationEmail", "email.activation.title");
+
+    public static final MailTemplate CREATION = new MailTemplate("mail/creationEmail", "email.activation.title");
+
+    public static final MailTemplate PASSWORD_RESET = new MailTemplate("mail/passwordResetEmail", "email.reset.title");
+
+    private static final List<MailTemplate> TEMPLATES = List.of(ACTIVATION, CREATION, PASSWORD_RESET);
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final String WARM_UP_LOGIN = "warmup";
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final MessageSource messageSource;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final Map<SubjectKey, String> subjects = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MessageSource messageSource,
+        SpringTemplateEngine templateEngine
+    ) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.messageSource = messageSource;
+        this.templateEngine = templateEngine;
+    }
+
+    /**
+     * Renders the given template for a user.
+     *
+     * @param user the user, with an email and a language.
+     * @param templateName the name of the template.
+     * @param titleKey the message key of the subject.
+     * @return the rendered email.
+     */
+    public RenderedMail render(User user, String templateName, String titleKey) {
+        Locale locale = Locale.forLanguageTag(user.getLangKey());
+        return render(user, templateName, subject(titleKey, locale), newContext(locale));
+    }
+
+    /**
+     * Renders the given template for many users, reusing one context per language.
+     *
+     * @param users the users, with an email and a language.
+     * @param templateName the name of the template.
+     * @param titleKey the message key of the subject.
+     * @return the rendered emails, in the order of the users.
+     */
+    public List<RenderedMail> renderAll(Collection<User> users, String templateName, String titleKey) {
+        Map<String, Context> contexts = new HashMap<>();
+        List<RenderedMail> mails = new ArrayList<>(users.size());
+        for (User user : users) {
+            Context context = contexts.computeIfAbsent(user.getLangKey(), langKey -> newContext(Locale.forLanguageTag(langKey)));
+            mails.add(render(user, templateName, subject(titleKey, context.getLocale()), context));
+        }
+        return mails;
+    }
+
+    private RenderedMail render(User user, String templateName, String subject, Context context) {
+        context.setVariable(USER, user);
+        return new RenderedMail(user, subject, templateEngine.process(templateName, context));
+    }
+
+    private Context newContext(Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return context;
+    }
+
+    private String subject(String titleKey, Locale locale) {
+        return subjects.computeIfAbsent(new SubjectKey(titleKey, locale), key -> messageSource.getMessage(titleKey, null, locale));
+    }
+
+    /**
+     * Parses the email templates and resolves their subjects for the configured languages.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        for (String langKey : applicationProperties.getMail().getTemplateLanguages()) {
+            User user = new User();
+            user.setLogin(WARM_UP_LOGIN);
+            user.setLangKey(langKey);
+            for (MailTemplate template : TEMPLATES) {
+                try {
+                    render(user, template.name(), template.titleKey());
+                } catch (RuntimeException e) {
+                    log.warn("Email template '{}' could not be warmed up for language '{}'", template.name(), langKey, e);
+                }
+            }
+        }
+        log.debug("Warmed up the email templates in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public record MailTemplate(String name, String titleKey) {}
+
+    public record RenderedMail(User user, String subject, String content) {}
+
+    private record SubjectKey(String titleKey, Locale locale) {}
+}
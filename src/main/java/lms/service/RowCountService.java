@@ -0,0 +1,148 @@
+package lms.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lms.config.ApplicationProperties;
+import lms.repository.TableStatisticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service counting the rows of the tables, for the total count of the paged listings.
+ * <p>
+ * An exact count scans a whole index on InnoDB, which gets slow on large tables, so it is only run when the
+ * {@link Mode#EXACT} mode is asked for. The other modes load a count once per time to live, and add the number of rows
+ * created and deleted since then, as reported by the services through {@link #increment(String, long)} and
+ * {@link #decrement(String, long)}. After changes whose number of rows is not known, such as deletes by id or bulk
+ * requests abandoned midway, the services call {@link #invalidate(String)} instead, so the count is loaded again. The
+ * rows changed by other instances, or by transactions rolled back after reporting them, are only accounted for when the
+ * count is loaded again.
+ */
+@Service
+public class RowCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(RowCountService.class);
+
+    public enum Mode {
+        /**
+         * Counted on every request.
+         */
+        EXACT,
+        /**
+         * Counted once per time to live, and adjusted by the rows created and deleted meanwhile.
+         */
+        CACHED,
+        /**
+         * Estimated from the statistics of the table once per time to live, and adjusted by the rows created and deleted
+         * meanwhile. Counted as in the cached mode when the database has no statistics.
+         */
+        APPROXIMATE,
+    }
+
+    private record Key(String table, Mode mode) {}
+
+    private final TableStatisticsRepository tableStatisticsRepository;
+
+    private final Duration cacheTimeToLive;
+
+    private final Duration approximateTimeToLive;
+
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+
+    public RowCountService(TableStatisticsRepository tableStatisticsRepository, ApplicationProperties applicationProperties) {
+        this.tableStatisticsRepository = tableStatisticsRepository;
+        this.cacheTimeToLive = Duration.ofSeconds(applicationProperties.getRowCount().getCacheTimeToLiveSeconds());
+        this.approximateTimeToLive = Duration.ofSeconds(applicationProperties.getRowCount().getApproximateTimeToLiveSeconds());
+    }
+
+    /**
+     * Counts the rows of a table.
+     *
+     * @param table the name of the table.
+     * @param mode how the rows are counted.
+     * @param exactCount counts the rows exactly.
+     * @return the number of rows.
+     */
+    public Mono<Long> count(String table, Mode mode, Supplier<Mono<Long>> exactCount) {
+        return switch (mode) {
+            case EXACT -> exactCount.get();
+            case CACHED -> counters.computeIfAbsent(new Key(table, mode), key -> new Counter(exactCount, cacheTimeToLive)).count();
+            case APPROXIMATE -> counters
+                .computeIfAbsent(
+                    new Key(table, mode),
+                    key ->
+                        new Counter(
+                            () ->
+                                tableStatisticsRepository
+                                    .estimateRowCount(table)
+                                    .onErrorResume(e -> {
+                                        log.debug("Could not estimate the number of rows of {}", table, e);
+                                        return Mono.empty();
+                                    })
+                                    .switchIfEmpty(Mono.defer(exactCount)),
+                            approximateTimeToLive
+                        )
+                )
+                .count();
+        };
+    }
+
+    /**
+     * Reports rows created in a table.
+     *
+     * @param table the name of the table.
+     * @param rows the number of created rows.
+     */
+    public void increment(String table, long rows) {
+        for (Mode mode : Mode.values()) {
+            Counter counter = counters.get(new Key(table, mode));
+            if (counter != null) {
+                counter.delta.addAndGet(rows);
+            }
+        }
+    }
+
+    /**
+     * Reports rows deleted from a table.
+     *
+     * @param table the name of the table.
+     * @param rows the number of deleted rows.
+     */
+    public void decrement(String table, long rows) {
+        increment(table, -rows);
+    }
+
+    /**
+     * Drops the counts of a table, after changes whose number of rows is not known, so they are loaded again.
+     *
+     * @param table the name of the table.
+     */
+    public void invalidate(String table) {
+        counters.keySet().removeIf(key -> key.table().equals(table));
+    }
+
+    private static final class Counter {
+
+        /** The rows created minus the rows deleted since the count was loaded. */
+        private final AtomicLong delta = new AtomicLong();
+
+        private final Mono<Long> loaded;
+
+        private Counter(Supplier<Mono<Long>> load, Duration timeToLive) {
+            // Cached for the time to live, then loaded again by the next subscriber; concurrent subscribers share a load
+            this.loaded = Mono.defer(() -> {
+                delta.set(0);
+                return load.get();
+            }).cache(count -> timeToLive, e -> Duration.ZERO, () -> Duration.ZERO);
+        }
+
+        private Mono<Long> count() {
+            return loaded.map(count -> Math.max(0, count + delta.get()));
+        }
+    }
+}
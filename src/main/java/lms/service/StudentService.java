@@ -1,10 +1,24 @@
 package lms.service;
 
+import java.util.Objects;
 import lms.domain.Student;
+import lms.domain.criteria.StudentCriteria;
+import lms.repository.CoursesRepository;
+import lms.repository.EntityManager;
+import lms.repository.Keyset;
 import lms.repository.StudentRepository;
+import lms.service.dto.BulkResultDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -20,8 +34,29 @@ public class StudentService {
 
     private final StudentRepository studentRepository;
 
-    public StudentService(StudentRepository studentRepository) {
+    private final ExportService exportService;
+
+    private final BulkService bulkService;
+
+    private final RowCountService rowCountService;
+
+    private final Cache studentsByIdCache;
+
+    private final Cache coursesByIdCache;
+
+    public StudentService(
+        StudentRepository studentRepository,
+        ExportService exportService,
+        BulkService bulkService,
+        RowCountService rowCountService,
+        CacheManager cacheManager
+    ) {
         this.studentRepository = studentRepository;
+        this.exportService = exportService;
+        this.bulkService = bulkService;
+        this.rowCountService = rowCountService;
+        this.studentsByIdCache = Objects.requireNonNull(cacheManager.getCache(StudentRepository.STUDENTS_BY_ID_CACHE));
+        this.coursesByIdCache = Objects.requireNonNull(cacheManager.getCache(CoursesRepository.COURSES_BY_ID_CACHE));
     }
 
     /**
@@ -30,9 +65,43 @@ public class StudentService {
      * @param student the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(cacheNames = StudentRepository.STUDENTS_BY_ID_CACHE, key = "#student.id", condition = "#student.id != null")
     public Mono<Student> save(Student student) {
         log.debug("Request to save Student : {}", student);
-        return studentRepository.save(student);
+        boolean created = student.getId() == null;
+        return studentRepository
+            .save(student)
+            .doOnNext(saved -> {
+                if (created) {
+                    rowCountService.increment(StudentRepository.TABLE, 1);
+                }
+            });
+    }
+
+    /**
+     * Save students in batches: the ones without id are created, the others updated. The cached students, and the
+     * cached courses embedding them, are evicted after each batch.
+     *
+     * @param students the students to save.
+     * @return the outcome for each student, in the order of the request.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkResultDTO> saveAll(Flux<Student> students) {
+        log.debug("Request to save Students in bulk");
+        return bulkService
+            .saveAll(Student.class, students, Student::getId, this::clearCaches)
+            .doOnNext(result -> {
+                if (result.getStatus() == BulkResultDTO.Status.CREATED) {
+                    rowCountService.increment(StudentRepository.TABLE, 1);
+                }
+            })
+            // The outcome of a batch committed meanwhile may never be reported
+            .doOnCancel(() -> rowCountService.invalidate(StudentRepository.TABLE));
+    }
+
+    private void clearCaches() {
+        studentsByIdCache.clear();
+        coursesByIdCache.clear();
     }
 
     /**
@@ -41,6 +110,12 @@ public class StudentService {
      * @param student the entity to save.
      * @return the persisted entity.
      */
+    @Caching(
+        evict = {
+            @CacheEvict(cacheNames = StudentRepository.STUDENTS_BY_ID_CACHE, key = "#student.id"),
+            @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, allEntries = true),
+        }
+    )
     public Mono<Student> update(Student student) {
         log.debug("Request to update Student : {}", student);
         return studentRepository.save(student);
@@ -52,6 +127,12 @@ public class StudentService {
      * @param student the entity to update partially.
      * @return the persisted entity.
      */
+    @Caching(
+        evict = {
+            @CacheEvict(cacheNames = StudentRepository.STUDENTS_BY_ID_CACHE, key = "#student.id"),
+            @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, allEntries = true),
+        }
+    )
     public Mono<Student> partialUpdate(Student student) {
         log.debug("Request to partially update Student : {}", student);
 
@@ -81,22 +162,66 @@ public class StudentService {
         return studentRepository.findAll();
     }
 
+    /**
+     * Get the students matching the criteria.
+     *
+     * @param criteria the filters of the students.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Student> findByCriteria(StudentCriteria criteria) {
+        log.debug("Request to get all Students by Criteria : {}", criteria);
+        return studentRepository.findAllBy(null, criteria);
+    }
+
+    /**
+     * Get a page of the students matching the criteria, seeking to the position of the keyset.
+     *
+     * @param keyset the sort and position of the page.
+     * @param pageSize the maximum number of entities to return.
+     * @param criteria the filters of the students.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Student> findAllBy(Keyset keyset, int pageSize, StudentCriteria criteria) {
+        log.debug("Request to get a page of Student after : {} by Criteria : {}", keyset, criteria);
+        return studentRepository.findAllBy(keyset, pageSize, criteria);
+    }
+
+    /**
+     * Export the students ordered by id, as one buffer per row. The rows are streamed from the database as the buffers are
+     * consumed, outside of a transaction, so an export neither holds the rows in memory nor keeps a transaction open.
+     *
+     * @param lastId the id of the last student already exported, or null to start with the first one.
+     * @param format the format of the rows.
+     * @param bufferFactory the factory of the buffers.
+     * @return the rows.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<DataBuffer> export(Long lastId, ExportService.Format format, DataBufferFactory bufferFactory) {
+        log.debug("Request to export Students after : {}", lastId);
+        return studentRepository.streamAllAfter(lastId, exportService.writer(format, EntityManager.ALIAS_PREFIX, bufferFactory));
+    }
+
     /**
      * Returns the number of students available.
+     * @param mode how the students are counted.
      * @return the number of entities in the database.
      *
      */
-    public Mono<Long> countAll() {
-        return studentRepository.count();
+    @Transactional(readOnly = true)
+    public Mono<Long> countAll(RowCountService.Mode mode) {
+        return rowCountService.count(StudentRepository.TABLE, mode, studentRepository::count);
     }
 
     /**
-     * Get one student by id.
+     * Get one student by id. The transaction is not read-only, so it does not go to a replica possibly missing the write
+     * that evicted the student.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = StudentRepository.STUDENTS_BY_ID_CACHE, sync = true)
     public Mono<Student> findOne(Long id) {
         log.debug("Request to get Student : {}", id);
         return studentRepository.findById(id);
@@ -108,8 +233,15 @@ public class StudentService {
      * @param id the id of the entity.
      * @return a Mono to signal the deletion
      */
+    @Caching(
+        evict = {
+            @CacheEvict(cacheNames = StudentRepository.STUDENTS_BY_ID_CACHE),
+            @CacheEvict(cacheNames = CoursesRepository.COURSES_BY_ID_CACHE, allEntries = true),
+        }
+    )
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Student : {}", id);
-        return studentRepository.deleteById(id);
+        // Whether a row was deleted is not known
+        return studentRepository.deleteById(id).doOnSuccess(deleted -> rowCountService.invalidate(StudentRepository.TABLE));
     }
 }
@@ -0,0 +1,41 @@
+package lms.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs actions once the current reactive transaction completes.
+ * <p>
+ * Caches are evicted this way on top of right away: a read between the eviction and the commit would otherwise load
+ * the rows still committed, and cache them again.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    /**
+     * Registers an action to run once the current transaction completes, whether committed or rolled back.
+     *
+     * @param action the action to run.
+     * @return a {@link Mono} completing once the action is registered, or right away without transaction, the action
+     * then not being run.
+     */
+    static Mono<Void> afterCompletion(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(action);
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .then();
+    }
+}
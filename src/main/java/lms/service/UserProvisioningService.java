@@ -0,0 +1,381 @@
+package lms.service;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import jakarta.validation.Validator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+import lms.config.ApplicationProperties;
+import lms.config.Constants;
+import lms.domain.Authority;
+import lms.domain.User;
+import lms.repository.EntityManager;
+import lms.repository.UserRepository;
+import lms.security.PasswordHashingRejectedException;
+import lms.security.PasswordHashingScheduler;
+import lms.security.SecurityUtils;
+import lms.service.dto.AdminUserDTO;
+import lms.service.dto.BulkResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Service creating users in bulk, such as the students of a semester.
+ * <p>
+ * The users are created in batches: the logins and emails of a batch are checked with one query each, the random
+ * passwords hashed in parallel on the password hashing pool, and the users inserted with one prepared statement and
+ * their authorities with another, in one transaction. The creation emails of a batch are queued once it is committed.
+ * When a batch fails, its users are created one by one, so that only the failing ones are reported as failed.
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    private static final int MAX_HASHING_RETRIES = 10;
+
+    private static final Duration HASHING_RETRY_BACKOFF = Duration.ofMillis(50);
+
+    private static final List<String> CSV_COLUMNS = List.of(
+        "login",
+        "email",
+        "firstName",
+        "lastName",
+        "langKey",
+        "imageUrl",
+        "authorities"
+    );
+
+    private final UserRepository userRepository;
+
+    private final EntityManager entityManager;
+
+    private final AuthorityService authorityService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final MailService mailService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Validator validator;
+
+    private final RowCountService rowCountService;
+
+    private final int batchSize;
+
+    private final int hashingConcurrency;
+
+    public UserProvisioningService(
+        UserRepository userRepository,
+        EntityManager entityManager,
+        AuthorityService authorityService,
+        PasswordEncoder passwordEncoder,
+        PasswordHashingScheduler passwordHashingScheduler,
+        MailService mailService,
+        TransactionalOperator transactionalOperator,
+        Validator validator,
+        RowCountService rowCountService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.authorityService = authorityService;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.mailService = mailService;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.rowCountService = rowCountService;
+        this.batchSize = applicationProperties.getRepository().getBulkBatchSize();
+        this.hashingConcurrency = applicationProperties.getSecurity().getPasswordHashingThreads();
+    }
+
+    /**
+     * Create the given users, activated and with a random password, and send them a creation email.
+     *
+     * @param users the users, created in batches as they arrive.
+     * @return the outcome for each user, identified by its position in {@code users}.
+     */
+    public Flux<BulkResultDTO> createUsers(Flux<AdminUserDTO> users) {
+        return SecurityUtils.getCurrentUserLogin()
+            .switchIfEmpty(Mono.just(Constants.SYSTEM))
+            .flatMapMany(login ->
+                users
+                    .index(Item::new)
+                    .buffer(batchSize)
+                    .concatMap(batch -> createBatch(batch, login))
+            )
+            .doOnNext(result -> {
+                if (result.getStatus() == BulkResultDTO.Status.CREATED) {
+                    rowCountService.increment(UserRepository.TABLE, 1);
+                }
+            })
+            // The outcome of a batch committed meanwhile may never be reported
+            .doOnCancel(() -> rowCountService.invalidate(UserRepository.TABLE));
+    }
+
+    /**
+     * Create the users of the given CSV lines, as {@link #createUsers(Flux)} does.
+     * <p>
+     * The first line is the header, naming the columns among {@code login}, {@code email}, {@code firstName},
+     * {@code lastName}, {@code langKey}, {@code imageUrl} and {@code authorities}, the latter separated by {@code ;}.
+     * The other columns are ignored, and the blank lines skipped.
+     *
+     * @param lines the lines of the CSV document.
+     * @return the outcome for each user, identified by its position among the users of the document.
+     */
+    public Flux<BulkResultDTO> createUsersFromCsv(Flux<String> lines) {
+        return createUsers(parseCsv(lines));
+    }
+
+    static Flux<AdminUserDTO> parseCsv(Flux<String> lines) {
+        return lines
+            .filter(line -> !line.isBlank())
+            .switchOnFirst((header, all) -> {
+                if (!header.hasValue()) {
+                    return all.thenMany(Flux.empty());
+                }
+                List<String> columns = parseCsvLine(header.get());
+                return all.skip(1).map(line -> toUser(columns, parseCsvLine(line)));
+            });
+    }
+
+    /**
+     * Splits a CSV line into its fields, unquoting the quoted ones.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static AdminUserDTO toUser(List<String> columns, List<String> fields) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < columns.size() && i < fields.size(); i++) {
+            if (CSV_COLUMNS.contains(columns.get(i)) && !fields.get(i).isEmpty()) {
+                values.put(columns.get(i), fields.get(i));
+            }
+        }
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(values.get("login"));
+        user.setEmail(values.get("email"));
+        user.setFirstName(values.get("firstName"));
+        user.setLastName(values.get("lastName"));
+        user.setLangKey(values.get("langKey"));
+        user.setImageUrl(values.get("imageUrl"));
+        if (values.containsKey("authorities")) {
+            user.setAuthorities(
+                Arrays.stream(values.get("authorities").split(";"))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .collect(Collectors.toCollection(LinkedHashSet::new))
+            );
+        }
+        return user;
+    }
+
+    private Flux<BulkResultDTO> createBatch(List<Item> batch, String createdBy) {
+        // Also added to by the hashing threads
+        List<BulkResultDTO> rejected = Collections.synchronizedList(new ArrayList<>());
+        List<Item> candidates = new ArrayList<>();
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Item item : batch) {
+            String error = validate(item.user());
+            if (error == null && !logins.add(login(item))) {
+                error = BulkResultDTO.ERROR_LOGIN_EXISTS;
+            } else if (error == null && email(item) != null && !emails.add(email(item))) {
+                error = BulkResultDTO.ERROR_EMAIL_EXISTS;
+            }
+            if (error != null) {
+                rejected.add(BulkResultDTO.failed(item.index(), null, error));
+            } else {
+                candidates.add(item);
+            }
+        }
+
+        Mono<Set<String>> existingLogins = logins.isEmpty()
+            ? Mono.just(Set.of())
+            : userRepository.findExistingLogins(logins).collect(Collectors.toSet());
+        Mono<Set<String>> existingEmails = emails.isEmpty()
+            ? Mono.just(Set.of())
+            : userRepository.findExistingEmails(emails).collect(Collectors.toSet());
+        return Mono.zip(existingLogins, existingEmails, authorityService.findAllNames())
+            .flatMapMany(existing -> {
+                List<Item> accepted = new ArrayList<>();
+                for (Item item : candidates) {
+                    if (existing.getT1().contains(login(item))) {
+                        rejected.add(BulkResultDTO.failed(item.index(), null, BulkResultDTO.ERROR_LOGIN_EXISTS));
+                    } else if (email(item) != null && existing.getT2().contains(email(item))) {
+                        rejected.add(BulkResultDTO.failed(item.index(), null, BulkResultDTO.ERROR_EMAIL_EXISTS));
+                    } else {
+                        accepted.add(item);
+                    }
+                }
+                return Flux.fromIterable(accepted)
+                    .flatMapSequential(
+                        item ->
+                            toEntity(item, existing.getT3(), createdBy).onErrorResume(e -> {
+                                // Typically the hashing pool still saturated once the retries are exhausted
+                                log.warn("Could not hash the password of user {} of the bulk request", item.index(), e);
+                                rejected.add(BulkResultDTO.failed(item.index(), null, BulkResultDTO.ERROR_UNEXPECTED));
+                                return Mono.empty();
+                            }),
+                        hashingConcurrency
+                    )
+                    .collectList()
+                    .flatMapMany(this::insertBatch);
+            })
+            .concatWith(Flux.defer(() -> Flux.fromIterable(rejected)))
+            .sort(Comparator.comparingLong(BulkResultDTO::getIndex));
+    }
+
+    private String validate(AdminUserDTO user) {
+        if (user.getId() != null) {
+            return BulkResultDTO.ERROR_ID_EXISTS;
+        }
+        return validator.validate(user).isEmpty() ? null : BulkResultDTO.ERROR_INVALID;
+    }
+
+    private Mono<NewUser> toEntity(Item item, SortedSet<String> authorityNames, String createdBy) {
+        AdminUserDTO userDTO = item.user();
+        User user = new User();
+        user.setLogin(login(item));
+        user.setFirstName(userDTO.getFirstName());
+        user.setLastName(userDTO.getLastName());
+        user.setEmail(email(item));
+        user.setImageUrl(userDTO.getImageUrl());
+        user.setLangKey(userDTO.getLangKey() == null ? Constants.DEFAULT_LANGUAGE : userDTO.getLangKey());
+        user.setActivated(true);
+        user.setResetKey(RandomUtil.generateResetKey());
+        user.setResetDate(Instant.now());
+        // The entity callbacks are not run by the batch inserts, so the auditing fields are set here
+        user.setCreatedBy(createdBy);
+        user.setLastModifiedBy(createdBy);
+        Set<String> authorities = userDTO.getAuthorities() == null ? Set.of() : userDTO.getAuthorities();
+        user.setAuthorities(
+            authorities
+                .stream()
+                .filter(authorityNames::contains)
+                .map(name -> new Authority().name(name).setIsPersisted())
+                .collect(Collectors.toSet())
+        );
+        return passwordHashingScheduler
+            .hash(() -> passwordEncoder.encode(RandomUtil.generatePassword()))
+            // The batch competes with the logins for the hashing pool: back off instead of failing the batch
+            .retryWhen(Retry.backoff(MAX_HASHING_RETRIES, HASHING_RETRY_BACKOFF).filter(PasswordHashingRejectedException.class::isInstance))
+            .map(passwordHash -> {
+                user.setPassword(passwordHash);
+                return new NewUser(item.index(), user);
+            });
+    }
+
+    private Flux<BulkResultDTO> insertBatch(List<NewUser> batch) {
+        if (batch.isEmpty()) {
+            return Flux.empty();
+        }
+        List<User> users = batch.stream().map(NewUser::user).toList();
+        // Rendering the emails blocks, and a failure to queue them must not fail the committed batch
+        Mono<Void> sendEmails = Mono.<Void>fromRunnable(() -> mailService.sendEmailsFromTemplate(users, MailTemplateRenderer.CREATION))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> {
+                log.warn("Could not send the creation emails of a batch of {} users", users.size(), e);
+                return Mono.empty();
+            });
+        return transactionalOperator
+            .transactional(insertUsers(users))
+            .then(sendEmails)
+            .thenMany(Flux.fromIterable(batch).map(newUser -> BulkResultDTO.created(newUser.index(), newUser.user().getId())))
+            .onErrorResume(e -> {
+                if (batch.size() == 1) {
+                    NewUser newUser = batch.get(0);
+                    log.debug("Could not create user {} of the bulk request", newUser.index(), e);
+                    newUser.user().setId(null);
+                    return Flux.just(BulkResultDTO.failed(newUser.index(), null, errorOf(e)));
+                }
+                log.debug("Could not create a batch of {} users, creating them one by one", batch.size(), e);
+                batch.forEach(newUser -> newUser.user().setId(null));
+                return Flux.fromIterable(batch).concatMap(newUser -> insertBatch(List.of(newUser)));
+            });
+    }
+
+    private Mono<Void> insertUsers(List<User> users) {
+        return entityManager
+            .insertAll(User.class, List.<Object>copyOf(users))
+            .zipWithIterable(users, (id, user) -> {
+                user.setId(((Number) id).longValue());
+                return user;
+            })
+            .collectMap(User::getId, UserProvisioningService::authorityNames)
+            .flatMap(userRepository::insertUserAuthorities);
+    }
+
+    private static Collection<String> authorityNames(User user) {
+        return user.getAuthorities().stream().map(Authority::getName).toList();
+    }
+
+    private static String login(Item item) {
+        return item.user().getLogin().toLowerCase();
+    }
+
+    private static String email(Item item) {
+        return item.user().getEmail() == null ? null : item.user().getEmail().toLowerCase();
+    }
+
+    private static String errorOf(Throwable e) {
+        if (e instanceof DataIntegrityViolationException || e instanceof R2dbcDataIntegrityViolationException) {
+            return BulkResultDTO.ERROR_CONSTRAINT;
+        }
+        return BulkResultDTO.ERROR_UNEXPECTED;
+    }
+
+    private record Item(long index, AdminUserDTO user) {}
+
+    private record NewUser(long index, User user) {}
+}
@@ -0,0 +1,232 @@
+package lms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lms.config.ApplicationProperties;
+import lms.repository.JobLeaseRepository;
+import lms.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service deleting the users not activated in time.
+ * <p>
+ * The users are deleted in batches, with set-based statements and a pause between the batches. The purge holds a
+ * lease in the database while it runs, renewed after each batch, so only one node purges at a time.
+ */
+@Service
+public class UserPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    public static final String LEASE_NAME = "purge-not-activated-users";
+
+    public static final String DELETED_METER_NAME = "users.purge.deleted";
+    public static final String DELETED_METER_DESCRIPTION = "Number of users deleted because they were not activated in time.";
+    public static final String DELETED_METER_BASE_UNIT = "users";
+
+    public static final String BATCH_METER_NAME = "users.purge.batch";
+    public static final String BATCH_METER_DESCRIPTION = "Time taken to delete a batch of users not activated in time.";
+
+    public static final String RUNNING_METER_NAME = "users.purge.running";
+    public static final String RUNNING_METER_DESCRIPTION = "Whether the purge of the users not activated in time is running on this node.";
+
+    public enum Result {
+        RUNNING,
+        COMPLETED,
+        /** Another node held the lease. */
+        SKIPPED,
+        /** The lease expired while purging, and was taken over by another node. */
+        LEASE_LOST,
+        FAILED,
+    }
+
+    /**
+     * Progress of the current purge, or result of the last one.
+     */
+    public record PurgeStatus(String node, Result result, Instant startedAt, Instant finishedAt, long deletedUsers, long batches) {}
+
+    private final UserRepository userRepository;
+
+    private final JobLeaseRepository jobLeaseRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties.UserPurge properties;
+
+    private final RowCountService rowCountService;
+
+    private final String node = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong deletedUsers = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile Result result;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private final Counter deletedCounter;
+
+    private final Timer batchTimer;
+
+    public UserPurgeService(
+        UserRepository userRepository,
+        JobLeaseRepository jobLeaseRepository,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties,
+        RowCountService rowCountService,
+        MeterRegistry registry
+    ) {
+        this.userRepository = userRepository;
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = applicationProperties.getUserPurge();
+        this.rowCountService = rowCountService;
+        this.deletedCounter = Counter.builder(DELETED_METER_NAME)
+            .description(DELETED_METER_DESCRIPTION)
+            .baseUnit(DELETED_METER_BASE_UNIT)
+            .register(registry);
+        this.batchTimer = Timer.builder(BATCH_METER_NAME)
+            .description(BATCH_METER_DESCRIPTION)
+            .publishPercentileHistogram()
+            .register(registry);
+        Gauge.builder(RUNNING_METER_NAME, running, value -> value.get() ? 1 : 0)
+            .description(RUNNING_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    /**
+     * Not activated users should be automatically deleted after 3 days, by default.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:00 (am).
+     *
+     * @return the status of the purge once it ends, or of the running one if it is already running on this node.
+     */
+    @Scheduled(cron = "0 0 1 * * ?")
+    public Mono<PurgeStatus> purge() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                log.debug("The purge of the users not activated is already running");
+                return Mono.just(getStatus());
+            }
+            return jobLeaseRepository
+                .acquire(LEASE_NAME, node, leaseDuration())
+                .flatMap(acquired -> acquired ? run() : skip())
+                .doFinally(signal -> running.set(false))
+                .then(Mono.fromSupplier(this::getStatus));
+        });
+    }
+
+    private Mono<Void> run() {
+        Instant now = Instant.now();
+        start(now, Result.RUNNING);
+        LocalDateTime createdBefore = LocalDateTime.ofInstant(
+            now.minus(properties.getNotActivatedRetentionDays(), ChronoUnit.DAYS),
+            ZoneOffset.UTC
+        );
+        Duration pause = Duration.ofMillis(properties.getPauseMillis());
+        return deleteBatch(createdBefore)
+            .expand(deleted -> Mono.delay(pause).then(renewLease()).flatMap(renewed -> renewed ? deleteBatch(createdBefore) : leaseLost()))
+            .then(Mono.fromRunnable(() -> finish(Result.COMPLETED)))
+            .onErrorResume(e -> {
+                log.error("The purge of the users not activated failed after deleting {} users", deletedUsers.get(), e);
+                finish(Result.FAILED);
+                return Mono.empty();
+            })
+            .then(jobLeaseRepository.release(LEASE_NAME, node))
+            .doOnSuccess(v -> log.info("Purge of the users not activated {}: {} users deleted", result, deletedUsers.get()));
+    }
+
+    /**
+     * Deletes the next batch of users not activated.
+     *
+     * @return the number of deleted users, or empty if there are none left.
+     */
+    private Mono<Long> deleteBatch(LocalDateTime createdBefore) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return userRepository
+                .findIdsOfNotActivatedUsersCreatedBefore(createdBefore, properties.getBatchSize())
+                .collectList()
+                .filter(ids -> !ids.isEmpty())
+                .flatMap(ids ->
+                    transactionalOperator.transactional(
+                        userRepository.deleteAuthoritiesOfNotActivatedUsers(ids).then(userRepository.deleteNotActivatedUsers(ids))
+                    )
+                )
+                .doOnNext(deleted -> {
+                    sample.stop(batchTimer);
+                    deletedCounter.increment(deleted);
+                    rowCountService.decrement(UserRepository.TABLE, deleted);
+                    log.debug("Deleted {} users not activated, {} so far", deleted, deletedUsers.addAndGet(deleted));
+                    batches.incrementAndGet();
+                });
+        });
+    }
+
+    private Mono<Boolean> renewLease() {
+        return jobLeaseRepository.acquire(LEASE_NAME, node, leaseDuration());
+    }
+
+    private Mono<Long> leaseLost() {
+        return Mono.fromRunnable(() -> {
+            log.warn("Lease of the purge of the users not activated lost, stopping");
+            finish(Result.LEASE_LOST);
+        });
+    }
+
+    private Mono<Void> skip() {
+        return Mono.fromRunnable(() -> {
+            log.debug("The purge of the users not activated is running on another node");
+            Instant now = Instant.now();
+            start(now, Result.SKIPPED);
+            finishedAt = now;
+        });
+    }
+
+    private Duration leaseDuration() {
+        return Duration.ofSeconds(properties.getLeaseSeconds());
+    }
+
+    private void start(Instant now, Result result) {
+        this.startedAt = now;
+        this.finishedAt = null;
+        this.deletedUsers.set(0);
+        this.batches.set(0);
+        this.result = result;
+    }
+
+    private void finish(Result result) {
+        if (this.result == Result.RUNNING) {
+            this.result = result;
+            this.finishedAt = Instant.now();
+        }
+    }
+
+    /**
+     * @return the progress of the current purge, or the result of the last one, on this node.
+     */
+    public PurgeStatus getStatus() {
+        return new PurgeStatus(node, result, startedAt, finishedAt, deletedUsers.get(), batches.get());
+    }
+}
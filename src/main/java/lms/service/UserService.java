@@ -1,23 +1,22 @@
 package lms.service;
 
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.Collectors;
 import lms.config.Constants;
 import lms.domain.Authority;
 import lms.domain.User;
-import lms.repository.AuthorityRepository;
 import lms.repository.UserRepository;
 import lms.security.AuthoritiesConstants;
+import lms.security.PasswordHashingScheduler;
 import lms.security.SecurityUtils;
 import lms.service.dto.AdminUserDTO;
 import lms.service.dto.UserDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,12 +37,28 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityService authorityService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final CacheManager cacheManager;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final RowCountService rowCountService;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityService authorityService,
+        CacheManager cacheManager,
+        PasswordHashingScheduler passwordHashingScheduler,
+        RowCountService rowCountService
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityService = authorityService;
+        this.cacheManager = cacheManager;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.rowCountService = rowCountService;
     }
 
     @Transactional
@@ -66,13 +81,17 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetKey(null);
-                user.setResetDate(null);
-                return user;
-            })
+            .flatMap(
+                user ->
+                    passwordHashingScheduler
+                        .hash(() -> passwordEncoder.encode(newPassword))
+                        .map(encryptedPassword -> {
+                            user.setPassword(encryptedPassword);
+                            user.setResetKey(null);
+                            user.setResetDate(null);
+                            return user;
+                        })
+            )
             .flatMap(this::saveUser);
     }
 
@@ -96,7 +115,7 @@ public class UserService {
             .findOneByLogin(userDTO.getLogin().toLowerCase())
             .flatMap(existingUser -> {
                 if (!existingUser.isActivated()) {
-                    return userRepository.delete(existingUser);
+                    return deleteNotActivatedUser(existingUser);
                 } else {
                     return Mono.error(new UsernameAlreadyUsedException());
                 }
@@ -104,43 +123,42 @@ public class UserService {
             .then(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()))
             .flatMap(existingUser -> {
                 if (!existingUser.isActivated()) {
-                    return userRepository.delete(existingUser);
+                    return deleteNotActivatedUser(existingUser);
                 } else {
                     return Mono.error(new EmailAlreadyUsedException());
                 }
             })
-            .publishOn(Schedulers.boundedElastic())
-            .then(
-                Mono.fromCallable(() -> {
-                    User newUser = new User();
-                    String encryptedPassword = passwordEncoder.encode(password);
-                    newUser.setLogin(userDTO.getLogin().toLowerCase());
-                    // new user gets initially a generated password
-                    newUser.setPassword(encryptedPassword);
-                    newUser.setFirstName(userDTO.getFirstName());
-                    newUser.setLastName(userDTO.getLastName());
-                    if (userDTO.getEmail() != null) {
-                        newUser.setEmail(userDTO.getEmail().toLowerCase());
-                    }
-                    newUser.setImageUrl(userDTO.getImageUrl());
-                    newUser.setLangKey(userDTO.getLangKey());
-                    // new user is not active
-                    newUser.setActivated(false);
-                    // new user gets registration key
-                    newUser.setActivationKey(RandomUtil.generateActivationKey());
-                    return newUser;
-                })
-            )
-            .flatMap(newUser -> {
-                Set<Authority> authorities = new HashSet<>();
-                return authorityRepository
-                    .findById(AuthoritiesConstants.USER)
-                    .map(authorities::add)
+            .then(passwordHashingScheduler.hash(() -> passwordEncoder.encode(password)))
+            .map(encryptedPassword -> {
+                User newUser = new User();
+                newUser.setLogin(userDTO.getLogin().toLowerCase());
+                // new user gets initially a generated password
+                newUser.setPassword(encryptedPassword);
+                newUser.setFirstName(userDTO.getFirstName());
+                newUser.setLastName(userDTO.getLastName());
+                if (userDTO.getEmail() != null) {
+                    newUser.setEmail(userDTO.getEmail().toLowerCase());
+                }
+                newUser.setImageUrl(userDTO.getImageUrl());
+                newUser.setLangKey(userDTO.getLangKey());
+                // new user is not active
+                newUser.setActivated(false);
+                // new user gets registration key
+                newUser.setActivationKey(RandomUtil.generateActivationKey());
+                return newUser;
+            })
+            .flatMap(newUser ->
+                findAuthorities(Set.of(AuthoritiesConstants.USER))
+                    .doOnNext(newUser::setAuthorities)
                     .thenReturn(newUser)
-                    .doOnNext(user -> user.setAuthorities(authorities))
                     .flatMap(this::saveUser)
-                    .doOnNext(user -> log.debug("Created Information for User: {}", user));
-            });
+                    .doOnNext(user -> rowCountService.increment(UserRepository.TABLE, 1))
+                    .doOnNext(user -> log.debug("Created Information for User: {}", user))
+            );
+    }
+
+    private Mono<Void> deleteNotActivatedUser(User user) {
+        return userRepository.delete(user).doOnSuccess(deleted -> rowCountService.decrement(UserRepository.TABLE, 1));
     }
 
     @Transactional
@@ -158,20 +176,18 @@ public class UserService {
         } else {
             user.setLangKey(userDTO.getLangKey());
         }
-        return Flux.fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
-            .flatMap(authorityRepository::findById)
-            .doOnNext(authority -> user.getAuthorities().add(authority))
-            .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
-            .map(newUser -> {
-                String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
-                newUser.setPassword(encryptedPassword);
-                newUser.setResetKey(RandomUtil.generateResetKey());
-                newUser.setResetDate(Instant.now());
-                newUser.setActivated(true);
-                return newUser;
+        return findAuthorities(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : Set.of())
+            .doOnNext(user::setAuthorities)
+            .then(passwordHashingScheduler.hash(() -> passwordEncoder.encode(RandomUtil.generatePassword())))
+            .map(encryptedPassword -> {
+                user.setPassword(encryptedPassword);
+                user.setResetKey(RandomUtil.generateResetKey());
+                user.setResetDate(Instant.now());
+                user.setActivated(true);
+                return user;
             })
             .flatMap(this::saveUser)
+            .doOnNext(user1 -> rowCountService.increment(UserRepository.TABLE, 1))
             .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
     }
 
@@ -186,6 +202,8 @@ public class UserService {
         return userRepository
             .findById(userDTO.getId())
             .flatMap(user -> {
+                // Evict the details cached under the previous login and email too
+                Mono<Void> clearPreviousUserCaches = clearUserCaches(user);
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -195,16 +213,20 @@ public class UserService {
                 user.setImageUrl(userDTO.getImageUrl());
                 user.setActivated(userDTO.isActivated());
                 user.setLangKey(userDTO.getLangKey());
-                Set<Authority> managedAuthorities = user.getAuthorities();
-                managedAuthorities.clear();
-                return userRepository
-                    .deleteUserAuthorities(user.getId())
-                    .thenMany(Flux.fromIterable(userDTO.getAuthorities()))
-                    .flatMap(authorityRepository::findById)
-                    .map(managedAuthorities::add)
-                    .then(Mono.just(user));
+                return clearPreviousUserCaches.then(findAuthorities(userDTO.getAuthorities()))
+                    .flatMap(authorities ->
+                        saveUser(user)
+                            .flatMap(savedUser ->
+                                userRepository
+                                    .saveUserAuthorities(
+                                        savedUser.getId(),
+                                        authorities.stream().map(Authority::getName).collect(Collectors.toSet())
+                                    )
+                                    .thenReturn(savedUser)
+                                    .doOnNext(updatedUser -> updatedUser.setAuthorities(authorities))
+                            )
+                    );
             })
-            .flatMap(this::saveUser)
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -214,6 +236,8 @@ public class UserService {
         return userRepository
             .findOneByLogin(login)
             .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .doOnNext(user -> rowCountService.decrement(UserRepository.TABLE, 1))
+            .flatMap(user -> clearUserCaches(user).thenReturn(user))
             .doOnNext(user -> log.debug("Deleted User: {}", user))
             .then();
     }
@@ -233,6 +257,7 @@ public class UserService {
         return SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .flatMap(user -> {
+                Mono<Void> clearPreviousUserCaches = clearUserCaches(user);
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 if (email != null) {
@@ -240,12 +265,19 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
-                return saveUser(user);
+                return clearPreviousUserCaches.then(saveUser(user));
             })
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .then();
     }
 
+    /**
+     * Save a user. The authorities are saved when the user is created: those of the existing users are replaced by
+     * {@link #updateUser(AdminUserDTO)} only, as they are not loaded along with the users.
+     *
+     * @param user the user to save.
+     * @return the saved user.
+     */
     @Transactional
     public Mono<User> saveUser(User user) {
         return SecurityUtils.getCurrentUserLogin()
@@ -255,16 +287,19 @@ public class UserService {
                     user.setCreatedBy(login);
                 }
                 user.setLastModifiedBy(login);
+                boolean newUser = user.getId() == null;
                 // Saving the relationship can be done in an entity callback
                 // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
                 return userRepository
                     .save(user)
-                    .flatMap(
-                        savedUser ->
-                            Flux.fromIterable(user.getAuthorities())
-                                .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                                .then(Mono.just(savedUser))
-                    );
+                    .flatMap(savedUser ->
+                        newUser
+                            ? userRepository
+                                .insertUserAuthorities(savedUser.getId(), user.getAuthorities().stream().map(Authority::getName).toList())
+                                .thenReturn(savedUser)
+                            : Mono.just(savedUser)
+                    )
+                    .flatMap(savedUser -> clearUserCaches(savedUser).thenReturn(savedUser));
             });
     }
 
@@ -272,16 +307,18 @@ public class UserService {
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils.getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                String currentEncryptedPassword = user.getPassword();
-                if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
-                    throw new InvalidPasswordException();
-                }
-                String encryptedPassword = passwordEncoder.encode(newPassword);
-                user.setPassword(encryptedPassword);
-                return user;
-            })
+            .flatMap(
+                user ->
+                    passwordHashingScheduler.hash(() -> {
+                        String currentEncryptedPassword = user.getPassword();
+                        if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
+                            throw new InvalidPasswordException();
+                        }
+                        String encryptedPassword = passwordEncoder.encode(newPassword);
+                        user.setPassword(encryptedPassword);
+                        return user;
+                    })
+            )
             .flatMap(this::saveUser)
             .doOnNext(user -> log.debug("Changed password for User: {}", user))
             .then();
@@ -298,8 +335,8 @@ public class UserService {
     }
 
     @Transactional(readOnly = true)
-    public Mono<Long> countManagedUsers() {
-        return userRepository.count();
+    public Mono<Long> countManagedUsers(RowCountService.Mode mode) {
+        return rowCountService.count(UserRepository.TABLE, mode, userRepository::count);
     }
 
     @Transactional(readOnly = true)
@@ -313,31 +350,44 @@ public class UserService {
     }
 
     /**
-     * Not activated users should be automatically deleted after 3 days.
-     * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * Evicts the cached user details of the given user, under its current login and email, right away and again once
+     * the current transaction completes: a login in between reads the row still committed, and would cache it again.
+     * Call it before changing the login or the email too, so the previous ones are not authenticated from the cache.
      */
-    @Scheduled(cron = "0 0 1 * * ?")
-    public void removeNotActivatedUsers() {
-        removeNotActivatedUsersReactively().blockLast();
+    private Mono<Void> clearUserCaches(User user) {
+        String login = user.getLogin();
+        String email = user.getEmail();
+        evictUserDetails(login, email);
+        return TransactionCallbacks.afterCompletion(() -> evictUserDetails(login, email));
     }
 
-    @Transactional
-    public Flux<User> removeNotActivatedUsersReactively() {
-        return userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
-                LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC)
-            )
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(user -> log.debug("Deleted User: {}", user));
+    private void evictUserDetails(String login, String email) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(login);
+        if (email != null) {
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(email);
+        }
     }
 
     /**
      * Gets a list of all the authorities.
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
     public Flux<String> getAuthorities() {
-        return authorityRepository.findAll().map(Authority::getName);
+        return authorityService.findAllNames().flatMapIterable(names -> names);
+    }
+
+    /**
+     * Gets the existing authorities among the given names, from the cached authorities.
+     */
+    private Mono<Set<Authority>> findAuthorities(Set<String> names) {
+        return authorityService
+            .findAllNames()
+            .map(existing ->
+                names
+                    .stream()
+                    .filter(existing::contains)
+                    .map(name -> new Authority().name(name).setIsPersisted())
+                    .collect(Collectors.toCollection(HashSet::new))
+            );
     }
 }
@@ -0,0 +1,99 @@
+package lms.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the outcome of saving one item of a bulk request.
+ */
+public class BulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED,
+    }
+
+    public static final String ERROR_NOT_FOUND = "notfound";
+    public static final String ERROR_CONSTRAINT = "constraint";
+    public static final String ERROR_UNEXPECTED = "unexpected";
+    public static final String ERROR_INVALID = "invalid";
+    public static final String ERROR_ID_EXISTS = "idexists";
+    public static final String ERROR_LOGIN_EXISTS = "userexists";
+    public static final String ERROR_EMAIL_EXISTS = "emailexists";
+
+    private long index;
+
+    private Long id;
+
+    private Status status;
+
+    private String error;
+
+    public BulkResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BulkResultDTO(long index, Long id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BulkResultDTO created(long index, Long id) {
+        return new BulkResultDTO(index, id, Status.CREATED, null);
+    }
+
+    public static BulkResultDTO updated(long index, Long id) {
+        return new BulkResultDTO(index, id, Status.UPDATED, null);
+    }
+
+    public static BulkResultDTO failed(long index, Long id, String error) {
+        return new BulkResultDTO(index, id, Status.FAILED, error);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkResultDTO{" +
+            "index=" + index +
+            ", id=" + id +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,49 @@
+package lms.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a course suggested while typing its name.
+ */
+public class CourseSuggestionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String course_name;
+
+    public CourseSuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CourseSuggestionDTO(Long id, String course_name) {
+        this.id = id;
+        this.course_name = course_name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCourse_name() {
+        return course_name;
+    }
+
+    public void setCourse_name(String course_name) {
+        this.course_name = course_name;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CourseSuggestionDTO{" +
+            "id=" + id +
+            ", course_name='" + course_name + "'" +
+            "}";
+    }
+}
@@ -9,6 +9,7 @@ import java.security.Principal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.stream.Collectors;
+import lms.management.SecurityMetersService;
 import lms.web.rest.vm.LoginVM;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,9 +48,16 @@ public class AuthenticateController {
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public AuthenticateController(JwtEncoder jwtEncoder, ReactiveAuthenticationManager authenticationManager) {
+    private final SecurityMetersService securityMetersService;
+
+    public AuthenticateController(
+        JwtEncoder jwtEncoder,
+        ReactiveAuthenticationManager authenticationManager,
+        SecurityMetersService securityMetersService
+    ) {
         this.jwtEncoder = jwtEncoder;
         this.authenticationManager = authenticationManager;
+        this.securityMetersService = securityMetersService;
     }
 
     @PostMapping("/authenticate")
@@ -59,7 +67,12 @@ public class AuthenticateController {
                 login ->
                     authenticationManager
                         .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
-                        .flatMap(auth -> Mono.fromCallable(() -> this.createToken(auth, login.isRememberMe())))
+                        .flatMap(
+                            auth ->
+                                Mono.fromCallable(
+                                    () -> securityMetersService.trackTokenIssue(() -> this.createToken(auth, login.isRememberMe()))
+                                )
+                        )
             )
             .map(jwt -> {
                 HttpHeaders httpHeaders = new HttpHeaders();
@@ -6,6 +6,7 @@ import java.net.URISyntaxException;
 import java.util.List;
 import lms.domain.Authority;
 import lms.repository.AuthorityRepository;
+import lms.service.AuthorityService;
 import lms.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,9 +36,12 @@ public class AuthorityResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    private final AuthorityService authorityService;
+
     private final AuthorityRepository authorityRepository;
 
-    public AuthorityResource(AuthorityRepository authorityRepository) {
+    public AuthorityResource(AuthorityService authorityService, AuthorityRepository authorityRepository) {
+        this.authorityService = authorityService;
         this.authorityRepository = authorityRepository;
     }
 
@@ -58,7 +62,7 @@ public class AuthorityResource {
                 if (exists) {
                     return Mono.error(new BadRequestAlertException("authority already exists", ENTITY_NAME, "idexists"));
                 }
-                return authorityRepository
+                return authorityService
                     .save(authority)
                     .map(result -> {
                         try {
@@ -119,8 +123,8 @@ public class AuthorityResource {
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
     public Mono<ResponseEntity<Void>> deleteAuthority(@PathVariable("id") String id) {
         log.debug("REST request to delete Authority : {}", id);
-        return authorityRepository
-            .deleteById(id)
+        return authorityService
+            .delete(id)
             .then(
                 Mono.just(
                     ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build()
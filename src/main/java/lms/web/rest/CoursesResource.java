@@ -3,19 +3,33 @@ package lms.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import lms.domain.Courses;
+import lms.domain.criteria.CoursesCriteria;
 import lms.repository.CoursesRepository;
+import lms.repository.Keyset;
 import lms.service.CoursesService;
+import lms.service.ExportService;
+import lms.service.dto.BulkResultDTO;
+import lms.service.dto.CourseSuggestionDTO;
 import lms.web.rest.errors.BadRequestAlertException;
+import lms.web.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -30,8 +44,12 @@ public class CoursesResource {
 
     private static final Logger log = LoggerFactory.getLogger(CoursesResource.class);
 
+    private static final List<String> ALLOWED_ORDERED_PROPERTIES = List.of("id", "course_name", "start_date", "end_date");
+
     private static final String ENTITY_NAME = "courses";
 
+    private static final int MAX_SEARCH_SIZE = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -70,6 +88,25 @@ public class CoursesResource {
             });
     }
 
+    /**
+     * {@code POST  /courses/bulk} : Create or update courses in bulk.
+     * <p>
+     * The courses are read as a JSON array or as newline delimited JSON, and saved in batches as they arrive: the ones
+     * without id are created, the others updated.
+     *
+     * @param courses the courses to save.
+     * @return the {@link Flux} with the outcome for each courses, identified by its position in the request.
+     */
+    @PostMapping(
+        value = "/bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    public Flux<BulkResultDTO> saveCoursesInBulk(@RequestBody Flux<Courses> courses) {
+        log.debug("REST request to save Courses in bulk");
+        return coursesService.saveAll(courses);
+    }
+
     /**
      * {@code PUT  /courses/:id} : Updates an existing courses.
      *
@@ -159,23 +196,150 @@ public class CoursesResource {
     /**
      * {@code GET  /courses} : get all the courses.
      *
-     * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
+     * @param eagerload flag to eager load the student of each course, otherwise only its {@code studentId} is returned.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of courses in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Courses>> getAllCourses(@RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload) {
-        log.debug("REST request to get all Courses");
-        return coursesService.findAll().collectList();
+    public Mono<List<Courses>> getAllCourses(
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        CoursesCriteria criteria
+    ) {
+        log.debug("REST request to get all Courses by criteria: {}", criteria);
+        if (eagerload) {
+            return coursesService.findAllWithEagerRelationships(Pageable.unpaged(), criteria).collectList();
+        }
+        return coursesService.findByCriteria(criteria).collectList();
+    }
+
+    /**
+     * {@code GET  /courses?size=:size} : get a page of the courses, using keyset (seek) pagination.
+     * <p>
+     * The first page is requested with the {@code size} and optional {@code sort} parameters, the following ones with
+     * the cursor returned in the {@code X-Next-Cursor} header, or by following the {@code next} link.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param pageable the page size and sort of the first page.
+     * @param cursor the position of the page, returned with the previous page.
+     * @param criteria the criteria which the requested entities should match, the same for all the pages.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of courses in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort is not valid.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE, params = "size")
+    public Mono<ResponseEntity<List<Courses>>> getCoursesPage(
+        ServerHttpRequest request,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        CoursesCriteria criteria
+    ) {
+        log.debug("REST request to get a page of Courses by criteria: {}", criteria);
+        Keyset keyset = createKeyset(pageable, cursor);
+        return coursesService
+            .findAllBy(keyset, pageable.getPageSize(), criteria)
+            .collectList()
+            .map(
+                page ->
+                    ResponseEntity.ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetHttpHeaders(
+                                ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()).build().toUri(),
+                                keyset,
+                                page,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(page)
+            );
+    }
+
+    private Keyset createKeyset(Pageable pageable, String cursor) {
+        try {
+            Keyset keyset = cursor != null ? Keyset.decode(cursor) : Keyset.first(pageable.getSort());
+            if (ALLOWED_ORDERED_PROPERTIES.contains(keyset.getProperty())) {
+                return keyset;
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid cursor {}", cursor, e);
+        }
+        throw new BadRequestAlertException("Invalid cursor or sort", ENTITY_NAME, "cursorinvalid");
     }
 
     /**
      * {@code GET  /courses} : get all the courses as a stream.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link Flux} of courses.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Courses> getAllCoursesAsStream() {
-        log.debug("REST request to get all Courses as a stream");
-        return coursesService.findAll();
+    public Flux<Courses> getAllCoursesAsStream(CoursesCriteria criteria) {
+        log.debug("REST request to get all Courses as a stream by criteria: {}", criteria);
+        return coursesService.findByCriteria(criteria);
+    }
+
+    /**
+     * {@code GET  /courses/_search?q=:query} : search the courses by name, with the full-text index of the database.
+     *
+     * @param query the words to search, each matching the start of a word of the name.
+     * @param size the maximum number of courses to return, up to 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching courses in body, the most relevant first.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Courses>> searchCourses(
+        @RequestParam("q") String query,
+        @RequestParam(name = "size", defaultValue = "20") int size
+    ) {
+        log.debug("REST request to search Courses for query {}", query);
+        return coursesService.search(query, searchSize(size)).collectList();
+    }
+
+    /**
+     * {@code GET  /courses/_suggest?q=:text} : suggest the courses while their name is typed.
+     * <p>
+     * The suggestions are served from an in-memory index of the names, without querying the database.
+     *
+     * @param text the text typed so far, each of its words matching the start of a word of the name.
+     * @param size the maximum number of courses to return, up to 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggested courses in body.
+     */
+    @GetMapping(value = "/_suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<CourseSuggestionDTO> suggestCourses(
+        @RequestParam("q") String text,
+        @RequestParam(name = "size", defaultValue = "10") int size
+    ) {
+        log.debug("REST request to suggest Courses for text {}", text);
+        return coursesService.suggest(text, searchSize(size));
+    }
+
+    private static int searchSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SEARCH_SIZE));
+    }
+
+    /**
+     * {@code GET  /courses/export} : export all the courses ordered by id, as newline delimited JSON or as CSV.
+     * <p>
+     * The rows are streamed from the database as the client reads them. An interrupted export is resumed by passing the
+     * id of the last exported courses in {@code after}.
+     *
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @param after the id of the last courses already exported, if any.
+     * @param response the response, providing the buffers.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the courses in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportCourses(
+        @RequestParam(name = "format", defaultValue = "ndjson") String format,
+        @RequestParam(name = "after", required = false) Long after,
+        ServerHttpResponse response
+    ) {
+        log.debug("REST request to export Courses as {} after : {}", format, after);
+        ExportService.Format exportFormat = ExportService.Format.fromName(format).orElseThrow(
+            () -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid")
+        );
+        String filename = "courses." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(coursesService.export(after, exportFormat, response.bufferFactory()));
     }
 
     /**
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import lms.config.ApplicationProperties;
+import lms.service.RowCountService;
 import lms.service.UserService;
 import lms.service.dto.UserDTO;
 import org.slf4j.Logger;
@@ -31,8 +33,11 @@ public class PublicUserResource {
 
     private final UserService userService;
 
-    public PublicUserResource(UserService userService) {
+    private final RowCountService.Mode countMode;
+
+    public PublicUserResource(UserService userService, ApplicationProperties applicationProperties) {
         this.userService = userService;
+        this.countMode = applicationProperties.getRowCount().getPublicUsers();
     }
 
     /**
@@ -53,7 +58,7 @@ public class PublicUserResource {
         }
 
         return userService
-            .countManagedUsers()
+            .countManagedUsers(countMode)
             .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
             .map(
                 page ->
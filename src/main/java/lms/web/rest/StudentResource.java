@@ -3,19 +3,32 @@ package lms.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import lms.domain.Student;
+import lms.domain.criteria.StudentCriteria;
+import lms.repository.Keyset;
 import lms.repository.StudentRepository;
+import lms.service.ExportService;
 import lms.service.StudentService;
+import lms.service.dto.BulkResultDTO;
 import lms.web.rest.errors.BadRequestAlertException;
+import lms.web.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ForwardedHeaderUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -30,6 +43,8 @@ public class StudentResource {
 
     private static final Logger log = LoggerFactory.getLogger(StudentResource.class);
 
+    private static final List<String> ALLOWED_ORDERED_PROPERTIES = List.of("id", "reg_no", "student_name");
+
     private static final String ENTITY_NAME = "student";
 
     @Value("${jhipster.clientApp.name}")
@@ -70,6 +85,25 @@ public class StudentResource {
             });
     }
 
+    /**
+     * {@code POST  /students/bulk} : Create or update students in bulk.
+     * <p>
+     * The students are read as a JSON array or as newline delimited JSON, and saved in batches as they arrive: the ones
+     * without id are created, the others updated.
+     *
+     * @param students the students to save.
+     * @return the {@link Flux} with the outcome for each student, identified by its position in the request.
+     */
+    @PostMapping(
+        value = "/bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    public Flux<BulkResultDTO> saveStudentsInBulk(@RequestBody Flux<Student> students) {
+        log.debug("REST request to save Students in bulk");
+        return studentService.saveAll(students);
+    }
+
     /**
      * {@code PUT  /students/:id} : Updates an existing student.
      *
@@ -159,22 +193,105 @@ public class StudentResource {
     /**
      * {@code GET  /students} : get all the students.
      *
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of students in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Student>> getAllStudents() {
-        log.debug("REST request to get all Students");
-        return studentService.findAll().collectList();
+    public Mono<List<Student>> getAllStudents(StudentCriteria criteria) {
+        log.debug("REST request to get all Students by criteria: {}", criteria);
+        return studentService.findByCriteria(criteria).collectList();
+    }
+
+    /**
+     * {@code GET  /students?size=:size} : get a page of the students, using keyset (seek) pagination.
+     * <p>
+     * The first page is requested with the {@code size} and optional {@code sort} parameters, the following ones with
+     * the cursor returned in the {@code X-Next-Cursor} header, or by following the {@code next} link.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param pageable the page size and sort of the first page.
+     * @param cursor the position of the page, returned with the previous page.
+     * @param criteria the criteria which the requested entities should match, the same for all the pages.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of students in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort is not valid.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE, params = "size")
+    public Mono<ResponseEntity<List<Student>>> getStudentPage(
+        ServerHttpRequest request,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAM, required = false) String cursor,
+        StudentCriteria criteria
+    ) {
+        log.debug("REST request to get a page of Student by criteria: {}", criteria);
+        Keyset keyset = createKeyset(pageable, cursor);
+        return studentService
+            .findAllBy(keyset, pageable.getPageSize(), criteria)
+            .collectList()
+            .map(
+                page ->
+                    ResponseEntity.ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetHttpHeaders(
+                                ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()).build().toUri(),
+                                keyset,
+                                page,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(page)
+            );
+    }
+
+    private Keyset createKeyset(Pageable pageable, String cursor) {
+        try {
+            Keyset keyset = cursor != null ? Keyset.decode(cursor) : Keyset.first(pageable.getSort());
+            if (ALLOWED_ORDERED_PROPERTIES.contains(keyset.getProperty())) {
+                return keyset;
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid cursor {}", cursor, e);
+        }
+        throw new BadRequestAlertException("Invalid cursor or sort", ENTITY_NAME, "cursorinvalid");
     }
 
     /**
      * {@code GET  /students} : get all the students as a stream.
+     * @param criteria the criteria which the requested entities should match.
      * @return the {@link Flux} of students.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Student> getAllStudentsAsStream() {
-        log.debug("REST request to get all Students as a stream");
-        return studentService.findAll();
+    public Flux<Student> getAllStudentsAsStream(StudentCriteria criteria) {
+        log.debug("REST request to get all Students as a stream by criteria: {}", criteria);
+        return studentService.findByCriteria(criteria);
+    }
+
+    /**
+     * {@code GET  /students/export} : export all the students ordered by id, as newline delimited JSON or as CSV.
+     * <p>
+     * The rows are streamed from the database as the client reads them. An interrupted export is resumed by passing the
+     * id of the last exported student in {@code after}.
+     *
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @param after the id of the last student already exported, if any.
+     * @param response the response, providing the buffers.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the students in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportStudents(
+        @RequestParam(name = "format", defaultValue = "ndjson") String format,
+        @RequestParam(name = "after", required = false) Long after,
+        ServerHttpResponse response
+    ) {
+        log.debug("REST request to export Students as {} after : {}", format, after);
+        ExportService.Format exportFormat = ExportService.Format.fromName(format).orElseThrow(
+            () -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid")
+        );
+        String filename = "students." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(studentService.export(after, exportFormat, response.bufferFactory()));
     }
 
     /**
@@ -8,13 +8,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import lms.config.ApplicationProperties;
 import lms.config.Constants;
 import lms.domain.User;
 import lms.repository.UserRepository;
 import lms.security.AuthoritiesConstants;
 import lms.service.MailService;
+import lms.service.RowCountService;
+import lms.service.UserProvisioningService;
 import lms.service.UserService;
 import lms.service.dto.AdminUserDTO;
+import lms.service.dto.BulkResultDTO;
 import lms.web.rest.errors.BadRequestAlertException;
 import lms.web.rest.errors.EmailAlreadyUsedException;
 import lms.web.rest.errors.LoginAlreadyUsedException;
@@ -25,6 +29,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -80,6 +85,8 @@ public class UserResource {
         )
     );
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private static final Logger log = LoggerFactory.getLogger(UserResource.class);
 
     @Value("${jhipster.clientApp.name}")
@@ -91,10 +98,22 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final UserProvisioningService userProvisioningService;
+
+    private final RowCountService.Mode countMode;
+
+    public UserResource(
+        UserService userService,
+        UserRepository userRepository,
+        MailService mailService,
+        UserProvisioningService userProvisioningService,
+        ApplicationProperties applicationProperties
+    ) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.userProvisioningService = userProvisioningService;
+        this.countMode = applicationProperties.getRowCount().getAdminUsers();
     }
 
     /**
@@ -145,6 +164,46 @@ public class UserResource {
             });
     }
 
+    /**
+     * {@code POST  /admin/users/bulk} : Creates users in bulk.
+     * <p>
+     * The users are read as a JSON array or as newline delimited JSON, and created in batches as they arrive, activated
+     * and with a random password. A creation email is sent to each of them.
+     *
+     * @param users the users to create.
+     * @return the {@link Flux} with the outcome for each user, identified by its position in the request.
+     */
+    @PostMapping(
+        value = "/users/bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<BulkResultDTO> createUsersInBulk(@RequestBody Flux<AdminUserDTO> users) {
+        log.debug("REST request to create Users in bulk");
+        return userProvisioningService.createUsers(users);
+    }
+
+    /**
+     * {@code POST  /admin/users/bulk} : Creates users in bulk, from a CSV document.
+     * <p>
+     * The first line names the columns, among {@code login}, {@code email}, {@code firstName}, {@code lastName},
+     * {@code langKey}, {@code imageUrl} and {@code authorities}, the latter separated by {@code ;}.
+     *
+     * @param lines the lines of the CSV document.
+     * @return the {@link Flux} with the outcome for each user, identified by its position among the users of the document.
+     */
+    @PostMapping(
+        value = "/users/bulk",
+        consumes = TEXT_CSV_VALUE,
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<BulkResultDTO> createUsersInBulkFromCsv(@RequestBody Flux<String> lines) {
+        log.debug("REST request to create Users in bulk from CSV");
+        return userProvisioningService.createUsersFromCsv(lines);
+    }
+
     /**
      * {@code PUT /admin/users} : Updates an existing User.
      *
@@ -206,7 +265,7 @@ public class UserResource {
         }
 
         return userService
-            .countManagedUsers()
+            .countManagedUsers(countMode)
             .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
             .map(
                 page ->
@@ -0,0 +1,48 @@
+package lms.web.util;
+
+import java.net.URI;
+import java.util.List;
+import lms.repository.Keyset;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * The position of the next page is returned in the {@value #NEXT_CURSOR_HEADER} header, and as a {@code rel="next"}
+ * <a href="https://tools.ietf.org/html/rfc5988">Link</a>, in the same way as {@link tech.jhipster.web.util.PaginationUtil} does
+ * for offset based pages.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String CURSOR_PARAM = "cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate pagination headers for a keyset page. When the page is not full, it was the last one, and no headers are generated.
+     *
+     * @param uri the request URI.
+     * @param keyset the keyset the page was read with.
+     * @param page the content of the page.
+     * @param pageSize the requested page size.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(URI uri, Keyset keyset, List<?> page, int pageSize) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.isEmpty() || page.size() < pageSize) {
+            return headers;
+        }
+        String cursor = keyset.after(page.get(page.size() - 1)).encode();
+        String next = UriComponentsBuilder.fromUri(uri)
+            .replaceQueryParam(CURSOR_PARAM, cursor)
+            .replaceQueryParam("sort")
+            .replaceQueryParam("page")
+            .toUriString();
+        headers.add(NEXT_CURSOR_HEADER, cursor);
+        headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        return headers;
+    }
+}
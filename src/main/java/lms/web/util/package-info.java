@@ -0,0 +1,4 @@
+/**
+ * Utility classes for the REST controllers.
+ */
+package lms.web.util;
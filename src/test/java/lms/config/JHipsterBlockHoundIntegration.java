@@ -9,6 +9,7 @@ public class JHipsterBlockHoundIntegration implements BlockHoundIntegration {
     public void applyTo(BlockHound.Builder builder) {
         builder.allowBlockingCallsInside("org.springframework.validation.beanvalidation.SpringValidatorAdapter", "validate");
         builder.allowBlockingCallsInside("lms.service.MailService", "sendEmailFromTemplate");
+        builder.allowBlockingCallsInside("lms.service.MailService", "sendEmailsFromTemplate");
         builder.allowBlockingCallsInside("lms.security.DomainUserDetailsService", "createSpringSecurityUser");
         builder.allowBlockingCallsInside("org.springframework.web.reactive.result.method.InvocableHandlerMethod", "invoke");
         builder.allowBlockingCallsInside("org.springdoc.core.service.OpenAPIService", "build");
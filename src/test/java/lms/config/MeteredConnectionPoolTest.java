@@ -0,0 +1,78 @@
+package lms.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.publisher.Mono;
+
+class MeteredConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MeteredConnectionPool meteredPool;
+
+    @BeforeEach
+    void setUp() {
+        pool = mock(ConnectionPool.class);
+        meterRegistry = new SimpleMeterRegistry();
+        meteredPool = new MeteredConnectionPool(pool, "connectionFactory", meterRegistry);
+    }
+
+    @Test
+    void recordsTheAcquisitionsByOutcome() {
+        when(pool.create()).thenReturn(Mono.just(mock(Connection.class)), Mono.error(new R2dbcTimeoutException("timeout")));
+
+        meteredPool.create().block();
+        assertThatThrownBy(() -> meteredPool.create().block()).isInstanceOf(R2dbcTimeoutException.class);
+
+        assertThat(acquisitions("success")).isEqualTo(1);
+        assertThat(acquisitions("timeout")).isEqualTo(1);
+        assertThat(acquisitions("error")).isZero();
+    }
+
+    @Test
+    void findsThePoolBehindTheConnectionFactory() {
+        assertThat(MeteredConnectionPool.findPool(meteredPool)).contains(pool);
+        assertThat(MeteredConnectionPool.findPool(mock(ConnectionFactory.class))).isEmpty();
+    }
+
+    @Test
+    void reportsTheInstanceOutOfServiceWhenTooManyRequestsWaitForAConnection() {
+        PoolMetrics metrics = mock(PoolMetrics.class);
+        when(pool.getMetrics()).thenReturn(Optional.of(metrics));
+        when(metrics.acquiredSize()).thenReturn(20);
+        when(metrics.getMaxAllocatedSize()).thenReturn(20);
+        when(metrics.pendingAcquireSize()).thenReturn(5, 50);
+        ConnectionPoolHealthIndicator healthIndicator = new ConnectionPoolHealthIndicator(pool, 10);
+
+        Health saturated = healthIndicator.health();
+        Health overloaded = healthIndicator.health();
+
+        assertThat(saturated.getStatus()).isEqualTo(Status.UP);
+        assertThat(saturated.getDetails()).containsEntry("saturation", 1.0).containsEntry("pending", 5);
+        assertThat(overloaded.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    private long acquisitions(String outcome) {
+        return meterRegistry
+            .get(MeteredConnectionPool.ACQUIRE_METER_NAME)
+            .tag(MeteredConnectionPool.ACQUIRE_METER_OUTCOME_DIMENSION, outcome)
+            .timer()
+            .count();
+    }
+}
@@ -0,0 +1,125 @@
+package lms.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.testcontainers.containers.MySQLContainer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes the transactions between two independent MySQL servers, each holding a row naming it, standing for the primary
+ * and a replica. As the second server does not replicate anything, it reports no replication status and is considered up
+ * to date.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadWriteRoutingConnectionFactoryIT {
+
+    private static final MySQLContainer<?> primaryContainer = new MySQLContainer<>("mysql:8.4.0").withDatabaseName("lms");
+
+    private static final MySQLContainer<?> replicaContainer = new MySQLContainer<>("mysql:8.4.0").withDatabaseName("lms");
+
+    private static ReadWriteRoutingConnectionFactory routing;
+
+    private static DatabaseClient db;
+
+    private static TransactionalOperator readOnlyTransaction;
+
+    private static TransactionalOperator readWriteTransaction;
+
+    @BeforeAll
+    static void startServers() {
+        primaryContainer.start();
+        replicaContainer.start();
+        ConnectionPool primary = pool(primaryContainer);
+        ConnectionPool replica = pool(replicaContainer);
+        nameServer(primary, "primary");
+        nameServer(replica, "replica");
+        routing = new ReadWriteRoutingConnectionFactory(
+            primary,
+            List.of(replica),
+            ReadWriteRoutingConnectionFactory.Balancing.ROUND_ROBIN,
+            Duration.ofSeconds(5),
+            Duration.ofMillis(200),
+            new SimpleMeterRegistry()
+        );
+        db = DatabaseClient.create(routing);
+        RoutingR2dbcTransactionManager transactionManager = new RoutingR2dbcTransactionManager(routing);
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+        readOnly.setReadOnly(true);
+        readOnlyTransaction = TransactionalOperator.create(transactionManager, readOnly);
+        readWriteTransaction = TransactionalOperator.create(transactionManager);
+    }
+
+    @AfterAll
+    static void stopServers() {
+        routing.dispose();
+        replicaContainer.stop();
+        primaryContainer.stop();
+    }
+
+    private static ConnectionPool pool(MySQLContainer<?> container) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.builder()
+            .option(ConnectionFactoryOptions.DRIVER, "mysql")
+            .option(ConnectionFactoryOptions.HOST, container.getHost())
+            .option(ConnectionFactoryOptions.PORT, container.getFirstMappedPort())
+            .option(ConnectionFactoryOptions.USER, container.getUsername())
+            .option(ConnectionFactoryOptions.PASSWORD, container.getPassword())
+            .option(ConnectionFactoryOptions.DATABASE, container.getDatabaseName())
+            .build();
+        return new ConnectionPool(
+            ConnectionPoolConfiguration.builder(ConnectionFactories.get(options)).maxSize(2).maxAcquireTime(Duration.ofSeconds(2)).build()
+        );
+    }
+
+    private static void nameServer(ConnectionPool pool, String name) {
+        DatabaseClient client = DatabaseClient.create(pool);
+        client
+            .sql("CREATE TABLE server_name (name VARCHAR(50) NOT NULL)")
+            .then()
+            .then(client.sql("INSERT INTO server_name (name) VALUES (:name)").bind("name", name).then())
+            .block();
+    }
+
+    private static Mono<String> serverName() {
+        return db.sql("SELECT name FROM server_name").map(row -> row.get("name", String.class)).one();
+    }
+
+    @Test
+    @Order(1)
+    void sendsTheReadOnlyTransactionsToTheReplica() {
+        // The replica is used once its replication lag is checked
+        String name = readOnlyTransaction
+            .transactional(serverName())
+            .filter("replica"::equals)
+            .repeatWhenEmpty(50, attempts -> attempts.delayElements(Duration.ofMillis(100)))
+            .block();
+
+        assertThat(name).isEqualTo("replica");
+        assertThat(readWriteTransaction.transactional(serverName()).block()).isEqualTo("primary");
+        assertThat(serverName().block()).isEqualTo("primary");
+    }
+
+    @Test
+    @Order(2)
+    void sendsTheReadOnlyTransactionsToThePrimaryOnceTheReplicaIsDown() {
+        replicaContainer.stop();
+
+        assertThat(readOnlyTransaction.transactional(serverName()).block()).isEqualTo("primary");
+    }
+}
@@ -0,0 +1,114 @@
+package lms.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class ReadWriteRoutingConnectionFactoryTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection firstReplicaConnection = mock(Connection.class);
+
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    private ConnectionFactory primary;
+
+    private ConnectionPool firstReplica;
+
+    private ConnectionPool secondReplica;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(ConnectionFactory.class);
+        doReturn(Mono.just(primaryConnection)).when(primary).create();
+        firstReplica = replica(firstReplicaConnection, 0);
+        secondReplica = replica(secondReplicaConnection, 3);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static ConnectionPool replica(Connection connection, int pendingAcquires) {
+        ConnectionPool pool = mock(ConnectionPool.class);
+        PoolMetrics metrics = mock(PoolMetrics.class);
+        when(pool.create()).thenReturn(Mono.just(connection));
+        when(pool.getMetrics()).thenReturn(Optional.of(metrics));
+        when(metrics.pendingAcquireSize()).thenReturn(pendingAcquires);
+        return pool;
+    }
+
+    private ReadWriteRoutingConnectionFactory routing(ReadWriteRoutingConnectionFactory.Balancing balancing) {
+        return new ReadWriteRoutingConnectionFactory(
+            primary,
+            List.of(firstReplica, secondReplica),
+            balancing,
+            Duration.ofSeconds(5),
+            Duration.ZERO,
+            meterRegistry
+        );
+    }
+
+    @Test
+    void sendsTheReadOnlyTransactionsToTheReplicasInTurn() {
+        ReadWriteRoutingConnectionFactory routing = routing(ReadWriteRoutingConnectionFactory.Balancing.ROUND_ROBIN);
+
+        assertThat(routing.create().block()).isSameAs(primaryConnection);
+        assertThat(IntStream.range(0, 3).mapToObj(i -> readOnly(routing))).containsExactly(
+            firstReplicaConnection,
+            secondReplicaConnection,
+            firstReplicaConnection
+        );
+        assertThat(readWrite(routing)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void sendsTheReadOnlyTransactionsToTheReplicaWithTheFewestPendingAcquires() {
+        ReadWriteRoutingConnectionFactory routing = routing(ReadWriteRoutingConnectionFactory.Balancing.LEAST_PENDING);
+
+        assertThat(readOnly(routing)).isSameAs(firstReplicaConnection);
+        assertThat(readOnly(routing)).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenNoReplicaProvidesAConnection() {
+        when(firstReplica.create()).thenReturn(Mono.error(new IllegalStateException("unreachable")));
+        when(secondReplica.create()).thenReturn(Mono.error(new IllegalStateException("unreachable")));
+        ReadWriteRoutingConnectionFactory routing = routing(ReadWriteRoutingConnectionFactory.Balancing.ROUND_ROBIN);
+
+        assertThat(readOnly(routing)).isSameAs(primaryConnection);
+        assertThat(readOnly(routing)).isSameAs(primaryConnection);
+        assertThat(readOnly(routing)).isSameAs(primaryConnection);
+
+        assertThat(meterRegistry.get(ReadWriteRoutingConnectionFactory.FALLBACKS_METER_NAME).counter().count()).isEqualTo(3);
+    }
+
+    private static Connection readOnly(ReadWriteRoutingConnectionFactory routing) {
+        return create(routing, true);
+    }
+
+    private static Connection readWrite(ReadWriteRoutingConnectionFactory routing) {
+        return create(routing, false);
+    }
+
+    private static Connection create(ReadWriteRoutingConnectionFactory routing, boolean readOnly) {
+        return routing
+            .create()
+            .contextWrite(context -> context.put(ReadWriteRoutingConnectionFactory.READ_ONLY_CONTEXT_KEY, readOnly))
+            .block();
+    }
+}
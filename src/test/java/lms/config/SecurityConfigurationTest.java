@@ -0,0 +1,41 @@
+package lms.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import tech.jhipster.config.JHipsterProperties;
+
+class SecurityConfigurationTest {
+
+    @Test
+    void encodesVersionedHashesOfTheConfiguredStrength() {
+        PasswordEncoder passwordEncoder = passwordEncoder(5);
+
+        String encodedPassword = passwordEncoder.encode("password");
+
+        assertThat(encodedPassword).startsWith("{bcrypt}$2a$05$").hasSizeLessThanOrEqualTo(100);
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(encodedPassword)).isFalse();
+    }
+
+    @Test
+    void matchesAndUpgradesUnversionedAndWeakerHashes() {
+        PasswordEncoder passwordEncoder = passwordEncoder(5);
+        String unversioned = new BCryptPasswordEncoder(5).encode("password");
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+
+        assertThat(passwordEncoder.matches("password", unversioned)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(unversioned)).isTrue();
+        assertThat(passwordEncoder.matches("password", weaker)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(weaker)).isTrue();
+    }
+
+    private static PasswordEncoder passwordEncoder(int bcryptStrength) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setBcryptStrength(bcryptStrength);
+        return new SecurityConfiguration(new JHipsterProperties(), applicationProperties).passwordEncoder(new SimpleMeterRegistry());
+    }
+}
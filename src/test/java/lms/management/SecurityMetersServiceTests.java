@@ -2,12 +2,23 @@ package lms.management;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.text.ParseException;
 import java.util.Collection;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import reactor.core.publisher.Mono;
 
 class SecurityMetersServiceTests {
 
@@ -67,4 +78,45 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testTokenFailuresAreCountedByErrorType() {
+        securityMetersService.trackTokenFailure(new JwtValidationException("expired", List.of(new OAuth2Error("invalid_token"))));
+        securityMetersService.trackTokenFailure(new BadJwtException("signature", new BadJWSException("Invalid signature")));
+        securityMetersService.trackTokenFailure(new BadJwtException("algorithm", new BadJOSEException("No matching key")));
+        securityMetersService.trackTokenFailure(new BadJwtException("Unsupported algorithm of none"));
+        securityMetersService.trackTokenFailure(new BadJwtException("parse", new ParseException("Invalid JWT serialization", 0)));
+
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-signature").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "unsupported").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLoginsAreTimedByResultAndCause() {
+        securityMetersService.trackLogin(Mono.just("authentication")).block();
+        securityMetersService.trackLogin(Mono.error(new BadCredentialsException("Invalid Credentials"))).onErrorComplete().block();
+        securityMetersService.trackLogin(Mono.error(new DisabledException("not activated"))).onErrorComplete().block();
+
+        assertThat(loginsTimer("success", "none").count()).isEqualTo(1);
+        assertThat(loginsTimer("failure", "bad-credentials").count()).isEqualTo(1);
+        assertThat(loginsTimer("failure", "not-activated").count()).isEqualTo(1);
+        assertThat(loginsTimer("failure", "user-not-found").count()).isZero();
+    }
+
+    @Test
+    void testAuthenticationStepsAreTimed() {
+        securityMetersService.trackUserLookup(Mono.just("user")).block();
+        securityMetersService.trackTokenDecode(Mono.just("jwt")).block();
+        assertThat(securityMetersService.trackTokenIssue(() -> "token")).isEqualTo("token");
+
+        assertThat(meterRegistry.get("security.authentication.user-lookup").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.token-decode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.token-issue").timer().count()).isEqualTo(1);
+    }
+
+    private Timer loginsTimer(String result, String cause) {
+        return meterRegistry.get("security.authentication.logins").tag("result", result).tag("cause", cause).timer();
+    }
 }
@@ -0,0 +1,79 @@
+package lms.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.LocalDate;
+import java.util.List;
+import lms.domain.criteria.CoursesCriteria;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+
+class CriteriaConditionTest {
+
+    private static final Table TABLE = Table.aliased("courses", EntityManager.ENTITY_ALIAS);
+
+    @Test
+    void rendersTheFiltersWithBindMarkers() {
+        CoursesCriteria criteria = new CoursesCriteria();
+        criteria.start_date().setGreaterThanOrEqual(LocalDate.of(2024, 9, 1));
+        criteria.end_date().setLessThan(LocalDate.of(2025, 1, 1));
+        criteria.course_name().setStartsWith("50%_off");
+        criteria.id().setIn(List.of(1L, 2L));
+        criteria.studentId().setSpecified(false);
+
+        CriteriaCondition condition = conditionOf(criteria);
+
+        assertThat(render(condition)).endsWith(
+            "WHERE e.id IN (:criteria_id_in) AND e.course_name LIKE :criteria_course_name_startsWith" +
+            " AND e.start_date >= :criteria_start_date_gte AND e.end_date < :criteria_end_date_lt AND e.student_id IS NULL"
+        );
+        assertThat(condition.getValues()).containsExactly(
+            entry("criteria_id_in", List.of(1L, 2L)),
+            entry("criteria_course_name_startsWith", "50\\%\\_off%"),
+            entry("criteria_start_date_gte", LocalDate.of(2024, 9, 1)),
+            entry("criteria_end_date_lt", LocalDate.of(2025, 1, 1))
+        );
+    }
+
+    @Test
+    void namesTheQueryByTheShapeOfTheCriteria() {
+        CoursesCriteria first = new CoursesCriteria();
+        first.course_name().setStartsWith("Alg");
+        first.id().setIn(List.of(1L, 2L));
+        CoursesCriteria second = new CoursesCriteria();
+        second.course_name().setStartsWith("Geo");
+        second.id().setIn(List.of(3L, 4L, 5L));
+        CoursesCriteria other = new CoursesCriteria();
+        other.course_name().setContains("Geo");
+
+        assertThat(conditionOf(first).queryName("all")).isEqualTo(conditionOf(second).queryName("all"));
+        assertThat(conditionOf(first).queryName("all")).isNotEqualTo(conditionOf(other).queryName("all"));
+    }
+
+    @Test
+    void ignoresTheEmptyCriteria() {
+        CoursesCriteria criteria = new CoursesCriteria();
+        criteria.id().setIn(List.of());
+
+        CriteriaCondition condition = conditionOf(criteria);
+
+        assertThat(condition.where()).isNull();
+        assertThat(condition.queryName("all")).isEqualTo("all");
+    }
+
+    private static CriteriaCondition conditionOf(CoursesCriteria criteria) {
+        return new CriteriaCondition(TABLE)
+            .add("id", criteria.getId())
+            .add("course_name", criteria.getCourse_name())
+            .add("start_date", criteria.getStart_date())
+            .add("end_date", criteria.getEnd_date())
+            .add("student_id", criteria.getStudentId());
+    }
+
+    private static String render(CriteriaCondition condition) {
+        return SqlRenderer.toString(Select.builder().select(TABLE.column("id")).from(TABLE).where(condition.where().get()).build());
+    }
+}
@@ -0,0 +1,51 @@
+package lms.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.time.LocalDate;
+import lms.domain.Courses;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class KeysetTest {
+
+    @Test
+    void firstPageDefaultsToIdAscending() {
+        Keyset keyset = Keyset.first(Sort.unsorted());
+
+        assertThat(keyset.getProperty()).isEqualTo(Keyset.ID_PROPERTY);
+        assertThat(keyset.getDirection()).isEqualTo(Sort.Direction.ASC);
+        assertThat(keyset.hasPosition()).isFalse();
+    }
+
+    @Test
+    void tokenRoundTripKeepsSortAndPosition() {
+        Courses last = new Courses().id(42L).course_name("Algebra").start_date(LocalDate.of(2024, 9, 1));
+
+        Keyset keyset = Keyset.first(Sort.by(Sort.Direction.DESC, "start_date")).after(last);
+        Keyset decoded = Keyset.decode(keyset.encode());
+
+        assertThat(decoded).isEqualTo(keyset);
+        assertThat(decoded.getProperty()).isEqualTo("start_date");
+        assertThat(decoded.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(decoded.hasPosition()).isTrue();
+        assertThat(decoded.hasLastValue()).isTrue();
+    }
+
+    @Test
+    void tokenRoundTripKeepsNullSortValue() {
+        Courses last = new Courses().id(7L);
+
+        Keyset keyset = Keyset.first(Sort.by("course_name")).after(last);
+
+        assertThat(Keyset.decode(keyset.encode()).hasLastValue()).isFalse();
+        assertThat(Keyset.decode(keyset.encode())).isEqualTo(keyset);
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> Keyset.decode("not a token"));
+        assertThatIllegalArgumentException().isThrownBy(() -> Keyset.decode("YWJj"));
+    }
+}
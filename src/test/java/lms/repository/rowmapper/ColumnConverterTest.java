@@ -0,0 +1,73 @@
+package lms.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import lms.config.DatabaseConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class ColumnConverterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ColumnConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(
+            MySqlDialect.INSTANCE,
+            List.of(DatabaseConfiguration.InstantReadConverter.INSTANCE, DatabaseConfiguration.BitSetReadConverter.INSTANCE)
+        );
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions), meterRegistry);
+    }
+
+    @Test
+    void returnsAssignableValuesWithoutCountingThem() {
+        assertThat(converter.convert("value", String.class)).isEqualTo("value");
+        assertThat(converter.convert(1L, Long.class)).isEqualTo(1L);
+        assertThat(converter.convert(null, Instant.class)).isNull();
+
+        assertThat(meterRegistry.find(ColumnConverter.SLOW_CONVERSIONS_METER_NAME).counters()).isEmpty();
+    }
+
+    @Test
+    void convertsWithCustomReadConvertersAndCountsThemPerTypePair() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 9, 2, 8, 30);
+        BitSet bitSet = new BitSet();
+        bitSet.set(0);
+
+        assertThat(converter.convert(dateTime, Instant.class)).isEqualTo(Instant.parse("2024-09-02T08:30:00Z"));
+        assertThat(converter.convert(dateTime.plusDays(1), Instant.class)).isEqualTo(Instant.parse("2024-09-03T08:30:00Z"));
+        assertThat(converter.convert(bitSet, Boolean.class)).isTrue();
+
+        assertThat(slowConversions(LocalDateTime.class, Instant.class).count()).isEqualTo(2);
+        assertThat(slowConversions(BitSet.class, Boolean.class).count()).isEqualTo(1);
+    }
+
+    @Test
+    void convertsEnums() {
+        assertThat(converter.convert("DESC", Sort.Direction.class)).isEqualTo(Sort.Direction.DESC);
+        assertThat(slowConversions(String.class, Sort.Direction.class).count()).isEqualTo(1);
+    }
+
+    private Counter slowConversions(Class<?> source, Class<?> target) {
+        return meterRegistry
+            .get(ColumnConverter.SLOW_CONVERSIONS_METER_NAME)
+            .tag("source", source.getName())
+            .tag("target", target.getName())
+            .counter();
+    }
+}
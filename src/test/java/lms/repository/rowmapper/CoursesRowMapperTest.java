@@ -0,0 +1,143 @@
+package lms.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiFunction;
+import lms.domain.Courses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class CoursesRowMapperTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2024, 9, 2);
+    private static final LocalDate END_DATE = LocalDate.of(2025, 6, 27);
+
+    private CoursesRowMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(MySqlDialect.INSTANCE, List.of());
+        ColumnConverter converter = new ColumnConverter(
+            conversions,
+            new MappingR2dbcConverter(new R2dbcMappingContext(), conversions),
+            new SimpleMeterRegistry()
+        );
+        mapper = new CoursesRowMapper(converter);
+    }
+
+    @Test
+    void mapsRowsByPositionAndResolvesTheLayoutOnce() {
+        TestRowMetadata metadata = new TestRowMetadata(
+            new TestColumn("e_id", Long.class),
+            new TestColumn("e_course_name", String.class),
+            new TestColumn("e_start_date", LocalDate.class),
+            new TestColumn("e_end_date", LocalDate.class),
+            new TestColumn("e_student_id", Long.class)
+        );
+        BiFunction<Row, RowMetadata, Courses> compiled = mapper.compile("e");
+
+        Courses first = compiled.apply(new TestRow(metadata, 1L, "Algebra", START_DATE, END_DATE, 7L), metadata);
+        Courses second = compiled.apply(new TestRow(metadata, 2L, "Biology", START_DATE, null, null), metadata);
+
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(first.getCourse_name()).isEqualTo("Algebra");
+        assertThat(first.getStart_date()).isEqualTo(START_DATE);
+        assertThat(first.getEnd_date()).isEqualTo(END_DATE);
+        assertThat(first.getStudentId()).isEqualTo(7L);
+        assertThat(second.getId()).isEqualTo(2L);
+        assertThat(second.getEnd_date()).isNull();
+        assertThat(second.getStudentId()).isNull();
+        assertThat(metadata.resolved).isEqualTo(1);
+    }
+
+    @Test
+    void convertsColumnsOfAnotherTypeAndSkipsForeignColumns() {
+        TestRowMetadata metadata = new TestRowMetadata(
+            new TestColumn("student_id", Long.class),
+            new TestColumn("x_student_id", Integer.class),
+            new TestColumn("x_end_date", LocalDate.class),
+            new TestColumn("x_start_date", LocalDate.class),
+            new TestColumn("x_course_name", String.class),
+            new TestColumn("x_id", Integer.class)
+        );
+
+        Courses courses = mapper.compile("x").apply(new TestRow(metadata, 99L, 7, END_DATE, START_DATE, "Chemistry", 3), metadata);
+
+        assertThat(courses.getId()).isEqualTo(3L);
+        assertThat(courses.getCourse_name()).isEqualTo("Chemistry");
+        assertThat(courses.getStart_date()).isEqualTo(START_DATE);
+        assertThat(courses.getEnd_date()).isEqualTo(END_DATE);
+        assertThat(courses.getStudentId()).isEqualTo(7L);
+    }
+
+    private record TestColumn(String name, Class<?> javaType) implements ColumnMetadata {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+
+        @Override
+        public Type getType() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class TestRowMetadata implements RowMetadata {
+
+        private final List<TestColumn> columns;
+        private int resolved;
+
+        TestRowMetadata(TestColumn... columns) {
+            this.columns = List.of(columns);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            throw new UnsupportedOperationException("Columns must be looked up by position");
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            resolved++;
+            return columns;
+        }
+    }
+
+    private record TestRow(RowMetadata metadata, Object... values) implements Row {
+        @Override
+        public RowMetadata getMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            throw new UnsupportedOperationException("Columns must be read by position");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package lms.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+class CachingJwtDecoderTest {
+
+    private ReactiveJwtDecoder delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private CachingJwtDecoder cachingJwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ReactiveJwtDecoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cachingJwtDecoder = new CachingJwtDecoder(delegate, 100, meterRegistry);
+    }
+
+    @Test
+    void verifiesTheSameTokenOnlyOnce() {
+        Jwt jwt = jwt("token", Instant.now().plusSeconds(60));
+        when(delegate.decode("token")).thenReturn(Mono.just(jwt));
+
+        assertThat(cachingJwtDecoder.decode("token").block()).isSameAs(jwt);
+        assertThat(cachingJwtDecoder.decode("token").block()).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode(anyString());
+        double hits = meterRegistry
+            .get("cache.gets")
+            .tag("cache", CachingJwtDecoder.CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter()
+            .count();
+        assertThat(hits).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheFailedOrExpiredTokens() {
+        when(delegate.decode("invalid")).thenReturn(Mono.error(new BadJwtException("invalid")));
+        when(delegate.decode("expired")).thenReturn(Mono.just(jwt("expired", Instant.now().minusSeconds(1))));
+
+        assertThatExceptionOfType(BadJwtException.class).isThrownBy(() -> cachingJwtDecoder.decode("invalid").block());
+        assertThatExceptionOfType(BadJwtException.class).isThrownBy(() -> cachingJwtDecoder.decode("invalid").block());
+        cachingJwtDecoder.decode("expired").block();
+        cachingJwtDecoder.decode("expired").block();
+
+        verify(delegate, times(2)).decode("invalid");
+        verify(delegate, times(2)).decode("expired");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+            .header("alg", "HS512")
+            .subject("user")
+            .issuedAt(expiresAt.minusSeconds(120))
+            .expiresAt(expiresAt)
+            .build();
+    }
+}
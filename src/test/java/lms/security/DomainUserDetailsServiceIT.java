@@ -135,4 +135,18 @@ class DomainUserDetailsServiceIT {
             () -> domainUserDetailsService.findByUsername(USER_THREE_LOGIN).block()
         );
     }
+
+    @Test
+    void assertThatSavedUserIsNotAuthenticatedFromTheCache() {
+        UserDetails cached = domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        assertThat(domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block()).isSameAs(cached);
+
+        User user = userRepository.findOneByLogin(USER_ONE_LOGIN).block();
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        userService.saveUser(user).block();
+
+        UserDetails userDetails = domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        assertThat(userDetails).isNotNull();
+        assertThat(userDetails.getPassword()).isEqualTo(user.getPassword());
+    }
 }
@@ -0,0 +1,94 @@
+package lms.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import lms.domain.User;
+import lms.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.core.publisher.Mono;
+
+class DomainUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+
+    private CaffeineCacheManager cacheManager;
+
+    private DomainUserDetailsService domainUserDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        cacheManager = new CaffeineCacheManager();
+        cacheManager.setAsyncCacheMode(true);
+        cacheManager.setCacheNames(List.of(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE));
+        domainUserDetailsService = new DomainUserDetailsService(userRepository, cacheManager);
+    }
+
+    @Test
+    void loadsTheUserOncePerLoginIgnoringCase() {
+        when(userRepository.findOneWithAuthoritiesByLogin("john")).thenReturn(Mono.fromSupplier(() -> user(true)));
+
+        UserDetails first = domainUserDetailsService.findByUsername("john").block();
+        UserDetails second = domainUserDetailsService.findByUsername("JOHN").block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getUsername()).isEqualTo("john");
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin("john");
+    }
+
+    @Test
+    void loadsTheUserAgainOnceEvicted() {
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("john@localhost")).thenReturn(Mono.fromSupplier(() -> user(true)));
+
+        domainUserDetailsService.findByUsername("John@localhost").block();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).evict("john@localhost");
+        domainUserDetailsService.findByUsername("john@localhost").block();
+
+        verify(userRepository, times(2)).findOneWithAuthoritiesByEmailIgnoreCase("john@localhost");
+    }
+
+    @Test
+    void doesNotCacheFailedLookups() {
+        when(userRepository.findOneWithAuthoritiesByLogin("john")).thenReturn(Mono.empty(), Mono.fromSupplier(() -> user(false)));
+
+        assertThatExceptionOfType(UsernameNotFoundException.class).isThrownBy(
+            () -> domainUserDetailsService.findByUsername("john").block()
+        );
+        assertThatExceptionOfType(UserNotActivatedException.class).isThrownBy(
+            () -> domainUserDetailsService.findByUsername("john").block()
+        );
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("john")).isNull();
+    }
+
+    @Test
+    void storesTheUpgradedPasswordHashAndEvictsTheUser() {
+        when(userRepository.findOneWithAuthoritiesByLogin("john")).thenReturn(Mono.fromSupplier(() -> user(true)));
+        when(userRepository.updatePasswordHash("john", "password", "upgraded")).thenReturn(Mono.just(1L));
+        when(userRepository.findOneByLogin("john")).thenReturn(Mono.fromSupplier(() -> user(true)));
+        UserDetails userDetails = domainUserDetailsService.findByUsername("john").block();
+
+        UserDetails upgraded = domainUserDetailsService.updatePassword(userDetails, "upgraded").block();
+
+        assertThat(upgraded.getPassword()).isEqualTo("upgraded");
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("john")).isNull();
+    }
+
+    private static User user(boolean activated) {
+        User user = new User();
+        user.setLogin("john");
+        user.setEmail("john@localhost");
+        user.setPassword("password");
+        user.setActivated(activated);
+        return user;
+    }
+}
@@ -0,0 +1,59 @@
+package lms.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import lms.config.ApplicationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashingSchedulerTest {
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordHashingScheduler passwordHashingScheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setPasswordHashingThreads(1);
+        applicationProperties.getSecurity().setPasswordHashingQueueCapacity(1);
+        passwordHashingScheduler = new PasswordHashingScheduler(applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingScheduler.destroy();
+    }
+
+    @Test
+    void runsTheOperationsOnTheHashingPool() {
+        String threadName = passwordHashingScheduler.hash(() -> Thread.currentThread().getName()).block();
+
+        assertThat(threadName).startsWith("password-hashing-");
+    }
+
+    @Test
+    void rejectsTheOperationsBeyondTheCapacity() {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = passwordHashingScheduler.hash(() -> release.await(10, TimeUnit.SECONDS)).toFuture();
+        CompletableFuture<Boolean> queued = passwordHashingScheduler.hash(() -> true).toFuture();
+
+        assertThatExceptionOfType(PasswordHashingRejectedException.class).isThrownBy(
+            () -> passwordHashingScheduler.hash(() -> true).block()
+        );
+        assertThat(meterRegistry.get(PasswordHashingScheduler.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PasswordHashingScheduler.PENDING_METER_NAME).gauge().value()).isEqualTo(2);
+
+        release.countDown();
+        assertThat(running.join()).isTrue();
+        assertThat(queued.join()).isTrue();
+    }
+}
@@ -8,6 +8,7 @@ import lms.config.SecurityConfiguration;
 import lms.config.SecurityJwtConfiguration;
 import lms.config.WebConfigurer;
 import lms.management.SecurityMetersService;
+import lms.security.PasswordHashingScheduler;
 import lms.web.rest.AuthenticateController;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.ComponentScan;
@@ -23,6 +24,7 @@ import tech.jhipster.config.JHipsterProperties;
         SecurityConfiguration.class,
         SecurityJwtConfiguration.class,
         SecurityMetersService.class,
+        PasswordHashingScheduler.class,
         JwtAuthenticationTestUtils.class,
     }
 )
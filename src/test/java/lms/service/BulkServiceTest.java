@@ -0,0 +1,101 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import lms.config.ApplicationProperties;
+import lms.domain.Courses;
+import lms.repository.EntityManager;
+import lms.service.dto.BulkResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class BulkServiceTest {
+
+    private EntityManager entityManager;
+
+    private BulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Flux.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRepository().setBulkBatchSize(10);
+        bulkService = new BulkService(entityManager, transactionalOperator, applicationProperties);
+
+        when(entityManager.findExistingIds(eq(Courses.class), anyList())).thenReturn(Flux.empty());
+        when(entityManager.updateAll(eq(Courses.class), anyList())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void createsNewAndUpdatesExistingCourses() {
+        Courses created = new Courses().course_name("created");
+        Courses updated = new Courses().course_name("updated");
+        updated.setId(5L);
+        Courses missing = new Courses().course_name("missing");
+        missing.setId(6L);
+        when(entityManager.insertAll(Courses.class, List.of(created))).thenReturn(Flux.<Object>just(42L));
+        when(entityManager.findExistingIds(Courses.class, List.of(5L, 6L))).thenReturn(Flux.<Object>just(5L));
+
+        List<BulkResultDTO> results = bulkService
+            .saveAll(Courses.class, Flux.just(updated, created, missing), Courses::getId, () -> {})
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .extracting(BulkResultDTO::getIndex, BulkResultDTO::getId, BulkResultDTO::getStatus, BulkResultDTO::getError)
+            .containsExactly(
+                tuple(0L, 5L, BulkResultDTO.Status.UPDATED, null),
+                tuple(1L, 42L, BulkResultDTO.Status.CREATED, null),
+                tuple(2L, 6L, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_NOT_FOUND)
+            );
+    }
+
+    @Test
+    void savesTheItemsOfAFailedBatchOneByOne() {
+        Courses valid = new Courses().course_name("valid");
+        Courses invalid = new Courses().course_name("invalid");
+        when(entityManager.insertAll(Courses.class, List.of(valid, invalid))).thenReturn(
+            Flux.error(new DataIntegrityViolationException("batch"))
+        );
+        when(entityManager.insertAll(Courses.class, List.of(valid))).thenReturn(Flux.<Object>just(1L));
+        when(entityManager.insertAll(Courses.class, List.of(invalid))).thenReturn(Flux.error(new DataIntegrityViolationException("item")));
+
+        List<BulkResultDTO> results = bulkService
+            .saveAll(Courses.class, Flux.just(valid, invalid), Courses::getId, () -> {})
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .extracting(BulkResultDTO::getIndex, BulkResultDTO::getStatus, BulkResultDTO::getError)
+            .containsExactly(
+                tuple(0L, BulkResultDTO.Status.CREATED, null),
+                tuple(1L, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_CONSTRAINT)
+            );
+    }
+
+    @Test
+    void runsTheCallbackWhenABatchIsCancelled() {
+        Courses course = new Courses().course_name("pending");
+        when(entityManager.insertAll(Courses.class, List.of(course))).thenReturn(Flux.never());
+        AtomicInteger completedBatches = new AtomicInteger();
+
+        // The client disconnects while the batch is saved
+        bulkService.saveAll(Courses.class, Flux.just(course), Courses::getId, completedBatches::incrementAndGet).subscribe().dispose();
+
+        assertThat(completedBatches).hasValue(1);
+    }
+}
@@ -0,0 +1,139 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import lms.config.ReadWriteRoutingConnectionFactory;
+import lms.config.RoutingR2dbcTransactionManager;
+import lms.domain.Courses;
+import lms.repository.CoursesRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.ConnectionFactoryUtils;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reloads the cached courses after an eviction while the replica, holding the courses as they were before the update,
+ * lags behind the primary.
+ */
+@SpringJUnitConfig
+class CachedReadsRoutingTest {
+
+    private static final Connection primaryConnection = connection();
+
+    private static final Connection replicaConnection = connection();
+
+    private static final AtomicReference<String> primaryName = new AtomicReference<>("Java");
+
+    @Autowired
+    private CoursesService coursesService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void cleanup() {
+        primaryName.set("Java");
+        cacheManager.getCache(CoursesRepository.COURSES_BY_ID_CACHE).clear();
+    }
+
+    @Test
+    void reloadsTheEvictedCoursesFromThePrimary() {
+        assertThat(coursesService.findOne(1L).block().getCourse_name()).isEqualTo("Java");
+
+        primaryName.set("Kotlin");
+        coursesService.update(new Courses().id(1L).course_name("Kotlin")).block();
+
+        assertThat(coursesService.findOne(1L).block().getCourse_name()).isEqualTo("Kotlin");
+        assertThat(coursesService.findOne(1L).block().getCourse_name()).isEqualTo("Kotlin");
+    }
+
+    private static Connection connection() {
+        return mock(Connection.class, invocation ->
+            Publisher.class.isAssignableFrom(invocation.getMethod().getReturnType()) ? Mono.empty() : RETURNS_DEFAULTS.answer(invocation)
+        );
+    }
+
+    @Configuration
+    @EnableCaching
+    @EnableTransactionManagement
+    static class Config {
+
+        @Bean
+        ReadWriteRoutingConnectionFactory connectionFactory() {
+            ConnectionFactory primary = mock(ConnectionFactory.class);
+            ConnectionPool replica = mock(ConnectionPool.class);
+            PoolMetrics metrics = mock(PoolMetrics.class);
+            when(primary.create()).thenAnswer(invocation -> Mono.just(primaryConnection));
+            when(replica.create()).thenReturn(Mono.just(replicaConnection));
+            when(replica.getMetrics()).thenReturn(Optional.of(metrics));
+            // The replica is used without checking its lag
+            return new ReadWriteRoutingConnectionFactory(
+                primary,
+                List.of(replica),
+                ReadWriteRoutingConnectionFactory.Balancing.ROUND_ROBIN,
+                Duration.ofSeconds(5),
+                Duration.ZERO,
+                new SimpleMeterRegistry()
+            );
+        }
+
+        @Bean
+        RoutingR2dbcTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+            return new RoutingR2dbcTransactionManager(connectionFactory);
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(CoursesRepository.COURSES_BY_ID_CACHE);
+            cacheManager.setAsyncCacheMode(true);
+            cacheManager.setAllowNullValues(false);
+            return cacheManager;
+        }
+
+        @Bean
+        CoursesRepository coursesRepository(ConnectionFactory connectionFactory) {
+            CoursesRepository coursesRepository = mock(CoursesRepository.class);
+            when(coursesRepository.findOneWithEagerRelationships(1L)).thenAnswer(invocation ->
+                ConnectionFactoryUtils.getConnection(connectionFactory).map(connection ->
+                    new Courses().id(1L).course_name(connection == replicaConnection ? "Java" : primaryName.get())
+                )
+            );
+            when(coursesRepository.save(any(Courses.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+            return coursesRepository;
+        }
+
+        @Bean
+        CoursesService coursesService(CoursesRepository coursesRepository, CacheManager cacheManager) {
+            return new CoursesService(
+                coursesRepository,
+                mock(ExportService.class),
+                mock(BulkService.class),
+                mock(CourseNameIndex.class),
+                mock(RowCountService.class),
+                cacheManager
+            );
+        }
+    }
+}
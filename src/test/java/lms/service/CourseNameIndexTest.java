@@ -0,0 +1,76 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lms.repository.CoursesRepository;
+import lms.service.dto.CourseSuggestionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+class CourseNameIndexTest {
+
+    private CoursesRepository coursesRepository;
+
+    private CourseNameIndex courseNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        coursesRepository = mock(CoursesRepository.class);
+        courseNameIndex = new CourseNameIndex(coursesRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void suggestsTheCoursesWithAWordStartingWithEachWordOfTheText() {
+        courseNameIndex.put(1L, "Linear Algebra");
+        courseNameIndex.put(2L, "Algorithms and Data Structures");
+        courseNameIndex.put(3L, "Abstract algebra II");
+
+        assertThat(courseNameIndex.suggest("alg", 10))
+            .extracting(CourseSuggestionDTO::getId, CourseSuggestionDTO::getCourse_name)
+            .containsExactly(tuple(1L, "Linear Algebra"), tuple(3L, "Abstract algebra II"), tuple(2L, "Algorithms and Data Structures"));
+        assertThat(courseNameIndex.suggest("ALG", 2)).extracting(CourseSuggestionDTO::getId).containsExactly(1L, 3L);
+        assertThat(courseNameIndex.suggest("abs alg", 10)).extracting(CourseSuggestionDTO::getId).containsExactly(3L);
+        assertThat(courseNameIndex.suggest("geo", 10)).isEmpty();
+        assertThat(courseNameIndex.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void replacesAndRemovesTheNamesOfTheCourses() {
+        courseNameIndex.put(1L, "Linear Algebra");
+        courseNameIndex.put(1L, "Geometry");
+
+        assertThat(courseNameIndex.suggest("lin", 10)).isEmpty();
+        assertThat(courseNameIndex.suggest("geo", 10)).extracting(CourseSuggestionDTO::getId).containsExactly(1L);
+
+        courseNameIndex.remove(1L);
+
+        assertThat(courseNameIndex.suggest("geo", 10)).isEmpty();
+        assertThat(courseNameIndex.size()).isZero();
+    }
+
+    @Test
+    void rebuildsFromTheCoursesWithoutOverwritingTheChangesMadeMeanwhile() {
+        Sinks.Many<CourseSuggestionDTO> courses = Sinks.many().unicast().onBackpressureBuffer();
+        when(coursesRepository.<CourseSuggestionDTO>streamAllAfter(isNull(), any())).thenReturn(courses.asFlux());
+        courseNameIndex.put(9L, "Stale course");
+
+        var rebuilt = courseNameIndex.rebuild().toFuture();
+        courses.tryEmitNext(new CourseSuggestionDTO(1L, "Linear Algebra"));
+        courseNameIndex.put(2L, "Renamed course");
+        courses.tryEmitNext(new CourseSuggestionDTO(2L, "Old name"));
+        courses.tryEmitComplete();
+
+        assertThat(rebuilt.join()).isEqualTo(2L);
+        assertThat(courseNameIndex.suggest("stale", 10)).isEmpty();
+        assertThat(courseNameIndex.suggest("old", 10)).isEmpty();
+        assertThat(courseNameIndex.suggest("lin", 10)).extracting(CourseSuggestionDTO::getId).containsExactly(1L);
+        assertThat(courseNameIndex.suggest("ren", 10)).extracting(CourseSuggestionDTO::getId).containsExactly(2L);
+    }
+}
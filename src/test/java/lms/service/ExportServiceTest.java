@@ -0,0 +1,87 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class ExportServiceTest {
+
+    private ExportService exportService;
+
+    private RowMetadata metadata;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(objectMapper);
+
+        List<ColumnMetadata> columns = List.of(column("e_id"), column("e_course_name"), column("e_start_date"));
+        metadata = mock(RowMetadata.class);
+        when(metadata.getColumnMetadatas()).thenAnswer(invocation -> columns);
+    }
+
+    @Test
+    void writesNdjsonLines() {
+        BiFunction<Row, RowMetadata, DataBuffer> writer = writer(ExportService.Format.NDJSON);
+
+        assertThat(write(writer, row(1L, "Algebra", LocalDate.of(2024, 9, 2)))).isEqualTo(
+            "{\"id\":1,\"course_name\":\"Algebra\",\"start_date\":\"2024-09-02\"}\n"
+        );
+        assertThat(write(writer, row(2L, null, null))).isEqualTo("{\"id\":2,\"course_name\":null,\"start_date\":null}\n");
+    }
+
+    @Test
+    void writesCsvWithHeaderAndQuotedValues() {
+        BiFunction<Row, RowMetadata, DataBuffer> writer = writer(ExportService.Format.CSV);
+
+        assertThat(write(writer, row(1L, "Algebra, \"advanced\"", LocalDate.of(2024, 9, 2)))).isEqualTo(
+            "id,course_name,start_date\r\n1,\"Algebra, \"\"advanced\"\"\",2024-09-02\r\n"
+        );
+        assertThat(write(writer, row(2L, "Biology", null))).isEqualTo("2,Biology,\r\n");
+    }
+
+    @Test
+    void findsFormatsIgnoringCase() {
+        assertThat(ExportService.Format.fromName("csv")).contains(ExportService.Format.CSV);
+        assertThat(ExportService.Format.fromName("NDJSON")).contains(ExportService.Format.NDJSON);
+        assertThat(ExportService.Format.fromName("xml")).isEmpty();
+    }
+
+    private BiFunction<Row, RowMetadata, DataBuffer> writer(ExportService.Format format) {
+        return exportService.writer(format, "e_", DefaultDataBufferFactory.sharedInstance);
+    }
+
+    private String write(BiFunction<Row, RowMetadata, DataBuffer> writer, Row row) {
+        return writer.apply(row, metadata).toString(StandardCharsets.UTF_8);
+    }
+
+    private static ColumnMetadata column(String name) {
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        when(column.getName()).thenReturn(name);
+        return column;
+    }
+
+    private static Row row(Object... values) {
+        Row row = mock(Row.class);
+        for (int i = 0; i < values.length; i++) {
+            when(row.get(i)).thenReturn(values[i]);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,153 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import lms.config.ApplicationProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+class MailOutboxTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private MailOutbox mailOutbox;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMail().setWorkers(1);
+        applicationProperties.getMail().setRetryBackoffMillis(10);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (mailOutbox != null) {
+            mailOutbox.destroy();
+        }
+    }
+
+    @Test
+    void sendsTheQueuedEmailsInBatchesOverOneConnectionEach() throws Exception {
+        applicationProperties.getMail().setBatchSize(2);
+        try (SmtpStub smtpStub = new SmtpStub()) {
+            JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+            javaMailSender.setHost("localhost");
+            javaMailSender.setPort(smtpStub.getPort());
+            mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+            for (int i = 1; i <= 3; i++) {
+                assertThat(mailOutbox.offer(message(javaMailSender.createMimeMessage(), "Welcome " + i))).isTrue();
+            }
+
+            mailOutbox.afterPropertiesSet();
+            mailOutbox.destroy();
+
+            assertThat(smtpStub.getMessages())
+                .hasSize(3)
+                .anySatisfy(message -> assertThat(message).contains("Subject: Welcome 1", "To: john.doe@example.com"))
+                .anySatisfy(message -> assertThat(message).contains("Subject: Welcome 3"));
+            assertThat(smtpStub.getConnections()).isEqualTo(2);
+            assertThat(messages("sent")).isEqualTo(3);
+            assertThat(meterRegistry.get(MailOutbox.SEND_METER_NAME).timer().count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void sendsFailedEmailsAgainAfterABackoff() throws Exception {
+        applicationProperties.getMail().setMaxAttempts(2);
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("Connection refused")).doNothing().when(javaMailSender).send(any(MimeMessage.class));
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+
+        mailOutbox.offer(message(new MimeMessage((Session) null), "Welcome"));
+        mailOutbox.afterPropertiesSet();
+
+        await(() -> messages("sent") == 1);
+        verify(javaMailSender, times(2)).send(any(MimeMessage.class));
+        assertThat(messages("retried")).isEqualTo(1);
+        assertThat(messages("failed")).isZero();
+    }
+
+    @Test
+    void dropsTheEmailsOutOfAttempts() throws Exception {
+        applicationProperties.getMail().setMaxAttempts(1);
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("Connection refused")).when(javaMailSender).send(any(MimeMessage.class));
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+
+        mailOutbox.offer(message(new MimeMessage((Session) null), "Welcome"));
+        mailOutbox.afterPropertiesSet();
+        mailOutbox.destroy();
+
+        assertThat(messages("failed")).isEqualTo(1);
+        assertThat(messages("retried")).isZero();
+    }
+
+    @Test
+    void rejectsTheEmailsWhenTheQueueIsFull() throws Exception {
+        applicationProperties.getMail().setQueueCapacity(1);
+        mailOutbox = new MailOutbox(mock(JavaMailSender.class), applicationProperties, meterRegistry);
+
+        assertThat(mailOutbox.offer(message(new MimeMessage((Session) null), "First"))).isTrue();
+        assertThat(mailOutbox.offer(message(new MimeMessage((Session) null), "Second"))).isFalse();
+
+        assertThat(messages("rejected")).isEqualTo(1);
+        assertThat(meterRegistry.get(MailOutbox.SIZE_METER_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsTheSendingRate() throws Exception {
+        applicationProperties.getMail().setBatchSize(1);
+        applicationProperties.getMail().setRateLimitPerSecond(20);
+        mailOutbox = new MailOutbox(mock(JavaMailSender.class), applicationProperties, meterRegistry);
+        for (int i = 1; i <= 3; i++) {
+            mailOutbox.offer(message(new MimeMessage((Session) null), "Welcome " + i));
+        }
+
+        long start = System.nanoTime();
+        mailOutbox.afterPropertiesSet();
+        await(() -> messages("sent") == 3);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    private double messages(String result) {
+        return meterRegistry.get(MailOutbox.MESSAGES_METER_NAME).tag("result", result).counter().count();
+    }
+
+    private static MimeMessage message(MimeMessage message, String subject) throws MessagingException {
+        message.setFrom(new InternetAddress("lms@localhost"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("john.doe@example.com"));
+        message.setSubject(subject);
+        message.setText("content");
+        return message;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 5 seconds").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Locale;
+import lms.config.ApplicationProperties;
+import lms.domain.User;
+import lms.service.MailTemplateRenderer.RenderedMail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+class MailTemplateRendererTest {
+
+    private ResourceBundleMessageSource subjectSource;
+
+    private MailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource());
+
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        subjectSource = spy(messageSource());
+        renderer = new MailTemplateRenderer(jHipsterProperties, new ApplicationProperties(), subjectSource, templateEngine);
+    }
+
+    @Test
+    void rendersTheTemplateAndResolvesItsSubjectOncePerLocale() {
+        RenderedMail first = renderer.render(user("john"), "mail/activationEmail", "email.activation.title");
+        RenderedMail second = renderer.render(user("jane"), "mail/activationEmail", "email.activation.title");
+
+        assertThat(first.subject()).isEqualTo("lms account activation");
+        assertThat(first.content()).contains("Dear john", "http://127.0.0.1:8080/account/activate?key=john-key");
+        assertThat(second.content()).contains("Dear jane");
+        verify(subjectSource, times(1)).getMessage(anyString(), any(), any(Locale.class));
+    }
+
+    @Test
+    void rendersManyUsersWithOneContextPerLanguage() {
+        List<RenderedMail> mails = renderer.renderAll(
+            List.of(user("john"), user("jane")),
+            MailTemplateRenderer.PASSWORD_RESET.name(),
+            MailTemplateRenderer.PASSWORD_RESET.titleKey()
+        );
+
+        assertThat(mails).extracting(mail -> mail.user().getLogin()).containsExactly("john", "jane");
+        assertThat(mails).allSatisfy(mail -> assertThat(mail.subject()).isEqualTo("lms password reset"));
+        assertThat(mails.get(0).content()).contains("Dear john").doesNotContain("jane");
+        assertThat(mails.get(1).content()).contains("Dear jane").doesNotContain("john");
+    }
+
+    @Test
+    void warmsUpTheSubjectsOfTheConfiguredLanguages() {
+        renderer.warmUp();
+        renderer.render(user("john"), MailTemplateRenderer.CREATION.name(), MailTemplateRenderer.CREATION.titleKey());
+
+        // The activation and creation emails share their subject
+        verify(subjectSource, times(2)).getMessage(anyString(), any(), any(Locale.class));
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        user.setActivationKey(login + "-key");
+        user.setResetKey(login + "-key");
+        return user;
+    }
+
+    private static ResourceBundleMessageSource messageSource() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        return messageSource;
+    }
+}
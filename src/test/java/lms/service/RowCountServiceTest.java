@@ -0,0 +1,80 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lms.config.ApplicationProperties;
+import lms.repository.TableStatisticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class RowCountServiceTest {
+
+    private static final String TABLE = "courses";
+
+    private TableStatisticsRepository tableStatisticsRepository;
+
+    private RowCountService rowCountService;
+
+    private final AtomicInteger exactCounts = new AtomicInteger();
+
+    private final Supplier<Mono<Long>> exactCount = () -> Mono.fromSupplier(() -> 100L + exactCounts.getAndIncrement());
+
+    @BeforeEach
+    void setUp() {
+        tableStatisticsRepository = mock(TableStatisticsRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRowCount().setCacheTimeToLiveSeconds(3600);
+        applicationProperties.getRowCount().setApproximateTimeToLiveSeconds(3600);
+        rowCountService = new RowCountService(tableStatisticsRepository, applicationProperties);
+    }
+
+    @Test
+    void countsOnEveryRequestInTheExactMode() {
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.EXACT, exactCount).block()).isEqualTo(100L);
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.EXACT, exactCount).block()).isEqualTo(101L);
+    }
+
+    @Test
+    void addsTheCreatedAndDeletedRowsToTheCachedCount() {
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.CACHED, exactCount).block()).isEqualTo(100L);
+
+        rowCountService.increment(TABLE, 5);
+        rowCountService.decrement(TABLE, 2);
+        rowCountService.increment("student", 10);
+
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.CACHED, exactCount).block()).isEqualTo(103L);
+        assertThat(exactCounts).hasValue(1);
+    }
+
+    @Test
+    void countsAgainOnceInvalidated() {
+        rowCountService.count(TABLE, RowCountService.Mode.CACHED, exactCount).block();
+        rowCountService.increment(TABLE, 5);
+
+        rowCountService.invalidate(TABLE);
+
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.CACHED, exactCount).block()).isEqualTo(101L);
+    }
+
+    @Test
+    void estimatesTheCountFromTheStatisticsOfTheTable() {
+        when(tableStatisticsRepository.estimateRowCount(TABLE)).thenReturn(Mono.just(90L));
+
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.APPROXIMATE, exactCount).block()).isEqualTo(90L);
+        rowCountService.increment(TABLE, 1);
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.APPROXIMATE, exactCount).block()).isEqualTo(91L);
+        assertThat(exactCounts).hasValue(0);
+    }
+
+    @Test
+    void countsExactlyWithoutStatistics() {
+        when(tableStatisticsRepository.estimateRowCount(TABLE)).thenReturn(Mono.empty());
+
+        assertThat(rowCountService.count(TABLE, RowCountService.Mode.APPROXIMATE, exactCount).block()).isEqualTo(100L);
+    }
+}
@@ -0,0 +1,95 @@
+package lms.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server accepting every email on a local port, recording the received emails and the number of
+ * connections, so the mail tests exercise a real SMTP session.
+ */
+class SmtpStub implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    SmtpStub() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "smtp-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the received emails, headers and body as sent by the client.
+     */
+    List<String> getMessages() {
+        return messages;
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                connections.incrementAndGet();
+                converse(socket);
+            } catch (IOException e) {
+                // Closed, or the client went away
+            }
+        }
+    }
+
+    private void converse(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        reply(out, "220 localhost SMTP stub");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase();
+            switch (command) {
+                case "DATA" -> {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder message = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        message.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                    }
+                    messages.add(message.toString());
+                    reply(out, "250 OK");
+                }
+                case "QUIT" -> {
+                    reply(out, "221 Bye");
+                    return;
+                }
+                default -> reply(out, "250 OK");
+            }
+        }
+    }
+
+    private static void reply(PrintWriter out, String reply) {
+        out.print(reply + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,228 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import lms.config.ApplicationProperties;
+import lms.config.Constants;
+import lms.domain.User;
+import lms.repository.EntityManager;
+import lms.repository.UserRepository;
+import lms.security.AuthoritiesConstants;
+import lms.security.PasswordHashingScheduler;
+import lms.service.dto.AdminUserDTO;
+import lms.service.dto.BulkResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class UserProvisioningServiceTest {
+
+    private UserRepository userRepository;
+
+    private EntityManager entityManager;
+
+    private MailService mailService;
+
+    private PasswordEncoder passwordEncoder;
+
+    private PasswordHashingScheduler passwordHashingScheduler;
+
+    private RowCountService rowCountService;
+
+    private UserProvisioningService userProvisioningService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        entityManager = mock(EntityManager.class);
+        mailService = mock(MailService.class);
+        rowCountService = mock(RowCountService.class);
+        AuthorityService authorityService = mock(AuthorityService.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(authorityService.findAllNames()).thenReturn(Mono.just(new TreeSet<>(Set.of(AuthoritiesConstants.USER))));
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(userRepository.findExistingLogins(anyCollection())).thenReturn(Flux.empty());
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Flux.empty());
+        when(userRepository.insertUserAuthorities(anyMap())).thenReturn(Mono.empty());
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRepository().setBulkBatchSize(10);
+        applicationProperties.getSecurity().setPasswordHashingThreads(2);
+        passwordHashingScheduler = new PasswordHashingScheduler(applicationProperties, new SimpleMeterRegistry());
+        userProvisioningService = new UserProvisioningService(
+            userRepository,
+            entityManager,
+            authorityService,
+            passwordEncoder,
+            passwordHashingScheduler,
+            mailService,
+            transactionalOperator,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            rowCountService,
+            applicationProperties
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingScheduler.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createsTheUsersOfABatchTogetherAndReportsTheRejectedOnes() {
+        when(userRepository.findExistingLogins(anyCollection())).thenReturn(Flux.just("taken"));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Flux.just("used@example.com"));
+        when(entityManager.insertAll(eq(User.class), anyList())).thenReturn(Flux.<Object>just(11L, 12L));
+
+        List<BulkResultDTO> results = userProvisioningService
+            .createUsers(
+                Flux.just(
+                    user("John", "john@example.com", Set.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN")),
+                    user("taken", "taken@example.com", null),
+                    user("jane", "used@example.com", null),
+                    user("JOHN", "john2@example.com", null),
+                    user("invalid login!", "invalid@example.com", null),
+                    user("jack", "jack@example.com", null)
+                )
+            )
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .extracting(BulkResultDTO::getIndex, BulkResultDTO::getId, BulkResultDTO::getStatus, BulkResultDTO::getError)
+            .containsExactly(
+                tuple(0L, 11L, BulkResultDTO.Status.CREATED, null),
+                tuple(1L, null, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_LOGIN_EXISTS),
+                tuple(2L, null, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_EMAIL_EXISTS),
+                tuple(3L, null, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_LOGIN_EXISTS),
+                tuple(4L, null, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_INVALID),
+                tuple(5L, 12L, BulkResultDTO.Status.CREATED, null)
+            );
+
+        ArgumentCaptor<List<Object>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(entityManager).insertAll(eq(User.class), inserted.capture());
+        assertThat(inserted.getValue())
+            .map(User.class::cast)
+            .extracting(User::getLogin, User::getPassword, User::isActivated, User::getLangKey, User::getCreatedBy)
+            .containsExactly(
+                tuple("john", "hash", true, Constants.DEFAULT_LANGUAGE, Constants.SYSTEM),
+                tuple("jack", "hash", true, Constants.DEFAULT_LANGUAGE, Constants.SYSTEM)
+            );
+        verify(userRepository).insertUserAuthorities(
+            Map.<Long, Collection<String>>of(11L, List.of(AuthoritiesConstants.USER), 12L, List.of())
+        );
+        verify(mailService).sendEmailsFromTemplate(any(), eq(MailTemplateRenderer.CREATION));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createsTheUsersOfAFailedBatchOneByOne() {
+        when(entityManager.insertAll(eq(User.class), anyList())).thenAnswer(invocation -> {
+            List<Object> users = invocation.getArgument(1);
+            if (users.size() > 1) {
+                return Flux.error(new DataIntegrityViolationException("batch"));
+            }
+            if ("jane".equals(((User) users.get(0)).getLogin())) {
+                return Flux.error(new DataIntegrityViolationException("item"));
+            }
+            return Flux.<Object>just(21L);
+        });
+
+        List<BulkResultDTO> results = userProvisioningService
+            .createUsers(Flux.just(user("john", "john@example.com", null), user("jane", "jane@example.com", null)))
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .extracting(BulkResultDTO::getIndex, BulkResultDTO::getId, BulkResultDTO::getStatus, BulkResultDTO::getError)
+            .containsExactly(
+                tuple(0L, 21L, BulkResultDTO.Status.CREATED, null),
+                tuple(1L, null, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_CONSTRAINT)
+            );
+    }
+
+    @Test
+    void reportsAFailureToHashAPasswordOnItsUser() {
+        when(passwordEncoder.encode(anyString())).thenThrow(new IllegalStateException("hashing")).thenReturn("hash");
+        when(entityManager.insertAll(eq(User.class), anyList())).thenReturn(Flux.<Object>just(31L));
+
+        List<BulkResultDTO> results = userProvisioningService
+            .createUsers(Flux.just(user("john", "john@example.com", null), user("jane", "jane@example.com", null)))
+            .collectList()
+            .block();
+
+        // The users are hashed concurrently, so either may be the one failing
+        assertThat(results)
+            .extracting(BulkResultDTO::getId, BulkResultDTO::getStatus, BulkResultDTO::getError)
+            .containsExactlyInAnyOrder(
+                tuple(31L, BulkResultDTO.Status.CREATED, null),
+                tuple(null, BulkResultDTO.Status.FAILED, BulkResultDTO.ERROR_UNEXPECTED)
+            );
+        assertThat(results).extracting(BulkResultDTO::getIndex).containsExactly(0L, 1L);
+    }
+
+    @Test
+    void invalidatesTheUserCountWhenTheRequestIsAbandoned() {
+        when(entityManager.insertAll(eq(User.class), anyList())).thenReturn(Flux.never());
+
+        // The client disconnects while the batch is created
+        userProvisioningService.createUsers(Flux.just(user("john", "john@example.com", null))).subscribe().dispose();
+
+        verify(rowCountService).invalidate(UserRepository.TABLE);
+    }
+
+    @Test
+    void readsTheUsersOfACsvDocument() {
+        List<AdminUserDTO> users = UserProvisioningService.parseCsv(
+            Flux.just(
+                "login,email,lastName,authorities,unknown",
+                "john,john@example.com,\"Doe, Jr.\",ROLE_USER;ROLE_ADMIN,ignored",
+                "",
+                "jane,jane@example.com"
+            )
+        )
+            .collectList()
+            .block();
+
+        assertThat(users)
+            .extracting(AdminUserDTO::getLogin, AdminUserDTO::getEmail, AdminUserDTO::getLastName, AdminUserDTO::getAuthorities)
+            .containsExactly(
+                tuple("john", "john@example.com", "Doe, Jr.", Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)),
+                tuple("jane", "jane@example.com", null, null)
+            );
+    }
+
+    private static AdminUserDTO user(String login, String email, Set<String> authorities) {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(login);
+        user.setEmail(email);
+        user.setAuthorities(authorities);
+        return user;
+    }
+}
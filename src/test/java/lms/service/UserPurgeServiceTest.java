@@ -0,0 +1,108 @@
+package lms.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import lms.config.ApplicationProperties;
+import lms.repository.JobLeaseRepository;
+import lms.repository.UserRepository;
+import lms.service.UserPurgeService.PurgeStatus;
+import lms.service.UserPurgeService.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class UserPurgeServiceTest {
+
+    private UserRepository userRepository;
+
+    private JobLeaseRepository jobLeaseRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private UserPurgeService userPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        jobLeaseRepository = mock(JobLeaseRepository.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(jobLeaseRepository.release(anyString(), anyString())).thenReturn(Mono.empty());
+        when(userRepository.deleteAuthoritiesOfNotActivatedUsers(any())).thenReturn(Mono.just(0L));
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUserPurge().setBatchSize(2);
+        applicationProperties.getUserPurge().setPauseMillis(0);
+        meterRegistry = new SimpleMeterRegistry();
+        userPurgeService = new UserPurgeService(
+            userRepository,
+            jobLeaseRepository,
+            transactionalOperator,
+            applicationProperties,
+            mock(RowCountService.class),
+            meterRegistry
+        );
+    }
+
+    @Test
+    void deletesTheUsersInBatchesUntilNoneIsLeft() {
+        when(jobLeaseRepository.acquire(eq(UserPurgeService.LEASE_NAME), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(userRepository.findIdsOfNotActivatedUsersCreatedBefore(any(), anyInt())).thenReturn(
+            Flux.just(1L, 2L),
+            Flux.just(3L),
+            Flux.empty()
+        );
+        when(userRepository.deleteNotActivatedUsers(List.of(1L, 2L))).thenReturn(Mono.just(2L));
+        when(userRepository.deleteNotActivatedUsers(List.of(3L))).thenReturn(Mono.just(1L));
+
+        PurgeStatus status = userPurgeService.purge().block();
+
+        assertThat(status.result()).isEqualTo(Result.COMPLETED);
+        assertThat(status.deletedUsers()).isEqualTo(3);
+        assertThat(status.batches()).isEqualTo(2);
+        assertThat(status.finishedAt()).isNotNull();
+        assertThat(meterRegistry.get(UserPurgeService.DELETED_METER_NAME).counter().count()).isEqualTo(3);
+        verify(userRepository).deleteAuthoritiesOfNotActivatedUsers(List.of(1L, 2L));
+        verify(jobLeaseRepository).release(eq(UserPurgeService.LEASE_NAME), anyString());
+    }
+
+    @Test
+    void skipsThePurgeWhenAnotherNodeHoldsTheLease() {
+        when(jobLeaseRepository.acquire(eq(UserPurgeService.LEASE_NAME), anyString(), any(Duration.class))).thenReturn(Mono.just(false));
+
+        PurgeStatus status = userPurgeService.purge().block();
+
+        assertThat(status.result()).isEqualTo(Result.SKIPPED);
+        verify(userRepository, never()).findIdsOfNotActivatedUsersCreatedBefore(any(), anyInt());
+        verify(jobLeaseRepository, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void stopsWhenTheLeaseIsLost() {
+        when(jobLeaseRepository.acquire(eq(UserPurgeService.LEASE_NAME), anyString(), any(Duration.class))).thenReturn(
+            Mono.just(true),
+            Mono.just(false)
+        );
+        when(userRepository.findIdsOfNotActivatedUsersCreatedBefore(any(), anyInt())).thenReturn(Flux.just(1L, 2L));
+        when(userRepository.deleteNotActivatedUsers(List.of(1L, 2L))).thenReturn(Mono.just(2L));
+
+        PurgeStatus status = userPurgeService.purge().block();
+
+        assertThat(status.result()).isEqualTo(Result.LEASE_LOST);
+        assertThat(status.deletedUsers()).isEqualTo(2);
+        assertThat(status.batches()).isEqualTo(1);
+    }
+}
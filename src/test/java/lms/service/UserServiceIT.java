@@ -2,21 +2,34 @@ package lms.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import lms.IntegrationTest;
 import lms.config.Constants;
+import lms.domain.Authority;
 import lms.domain.User;
 import lms.repository.UserRepository;
+import lms.security.AuthoritiesConstants;
+import lms.service.dto.AdminUserDTO;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -43,6 +56,18 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private ReactiveUserDetailsService userDetailsService;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private User user;
 
     @BeforeEach
@@ -63,6 +88,8 @@ class UserServiceIT {
     public void cleanupAndCheck() {
         userRepository.deleteAllUserAuthorities().block();
         userRepository.deleteAll().block();
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
     }
 
     @Test
@@ -134,6 +161,89 @@ class UserServiceIT {
         userRepository.delete(user).block();
     }
 
+    @Test
+    void assertThatALoginDuringAPasswordChangeDoesNotKeepThePreviousPassword() {
+        String previousPassword = user.getPassword();
+        String newPassword = RandomStringUtils.randomAlphanumeric(60);
+        userRepository.save(user).block();
+
+        UserDetails loggedInMeanwhile = TransactionalOperator.create(transactionManager)
+            .transactional(
+                userRepository
+                    .findOneByLogin(DEFAULT_LOGIN)
+                    .doOnNext(existingUser -> existingUser.setPassword(newPassword))
+                    .flatMap(userService::saveUser)
+                    // A login of another request, between the save and the commit
+                    .flatMap(savedUser -> userDetailsService.findByUsername(DEFAULT_LOGIN).contextWrite(context -> Context.empty()))
+            )
+            .block();
+
+        assertThat(loggedInMeanwhile.getPassword()).isEqualTo(previousPassword);
+        assertThat(userDetailsService.findByUsername(DEFAULT_LOGIN).block().getPassword()).isEqualTo(newPassword);
+    }
+
+    @Test
+    void assertThatUpdatedUserKeepsOnlyTheRequestedAuthorities() {
+        User savedUser = userRepository.save(user).block();
+        userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.USER).block();
+        AdminUserDTO userDTO = new AdminUserDTO(savedUser);
+
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN, "ROLE_UNKNOWN"));
+        assertThat(userService.updateUser(userDTO).block().getAuthorities()).containsExactlyInAnyOrder(
+            AuthoritiesConstants.USER,
+            AuthoritiesConstants.ADMIN
+        );
+
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.ADMIN));
+        userService.updateUser(userDTO).block();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void assertThatConcurrentUpdatesAddingTheSameAuthoritiesDoNotConflict() {
+        Long userId = userRepository.save(user).block().getId();
+        Set<String> authorities = Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        TransactionalOperator transaction = TransactionalOperator.create(transactionManager);
+
+        // The second update reads the authorities while the first one has inserted them, but not committed yet
+        Mono<Void> first = transaction.transactional(
+            userRepository.saveUserAuthorities(userId, authorities).then(Mono.delay(Duration.ofMillis(500))).then()
+        );
+        Mono<Void> second = transaction.transactional(
+            Mono.delay(Duration.ofMillis(100)).then(userRepository.saveUserAuthorities(userId, authorities))
+        );
+        Mono.when(first, second).block();
+
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrderElementsOf(authorities);
+    }
+
+    @Test
+    void assertThatALoginDuringADemotionDoesNotKeepThePreviousAuthorities() {
+        User savedUser = userRepository.save(user).block();
+        userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.ADMIN).block();
+        userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.USER).block();
+        AdminUserDTO userDTO = new AdminUserDTO(savedUser);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER));
+
+        UserDetails loggedInMeanwhile = TransactionalOperator.create(transactionManager)
+            .transactional(
+                userService
+                    .updateUser(userDTO)
+                    // A login of another request, between the authority changes and the commit
+                    .flatMap(updatedUser -> userDetailsService.findByUsername(DEFAULT_LOGIN).contextWrite(context -> Context.empty()))
+            )
+            .block();
+
+        assertThat(loggedInMeanwhile.getAuthorities()).extracting(GrantedAuthority::getAuthority).contains(AuthoritiesConstants.ADMIN);
+        assertThat(userDetailsService.findByUsername(DEFAULT_LOGIN).block().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+
     @Test
     void assertThatNotActivatedUsersWithNotNullActivationKeyCreatedBefore3DaysAreDeleted() {
         Instant now = Instant.now();
@@ -148,7 +258,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
+        userPurgeService.purge().block();
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo).collectList().block();
         assertThat(users).isEmpty();
     }
@@ -166,7 +276,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
+        userPurgeService.purge().block();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
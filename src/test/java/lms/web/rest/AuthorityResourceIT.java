@@ -8,16 +8,22 @@ import static org.hamcrest.Matchers.is;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import lms.IntegrationTest;
 import lms.domain.Authority;
+import lms.domain.User;
 import lms.repository.AuthorityRepository;
 import lms.repository.EntityManager;
+import lms.repository.UserRepository;
+import lms.service.UserService;
+import lms.service.dto.AdminUserDTO;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -45,6 +51,15 @@ class AuthorityResourceIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private Authority authority;
 
     private Authority insertedAuthority;
@@ -91,6 +106,8 @@ class AuthorityResourceIT {
             insertedAuthority = null;
         }
         deleteEntities(em);
+        // The entities are deleted behind the service
+        cacheManager.getCache(AuthorityRepository.AUTHORITY_NAMES_CACHE).clear();
     }
 
     @Test
@@ -116,6 +133,33 @@ class AuthorityResourceIT {
         insertedAuthority = returnedAuthority;
     }
 
+    @Test
+    void assignAuthorityRightAfterCreatingIt() throws Exception {
+        // Cache the names of the authorities before the creation
+        assertThat(userService.getAuthorities().collectList().block()).doesNotContain(authority.getName());
+        User user = userRepository.save(UserResourceIT.createEntity(em)).block();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(authority))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+        insertedAuthority = authority;
+
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setAuthorities(Set.of(authority.getName()));
+        assertThat(userService.updateUser(userDTO).block().getAuthorities()).containsExactly(authority.getName());
+        userRepository.delete(user).block();
+
+        webTestClient.delete().uri(ENTITY_API_URL_ID, authority.getName()).exchange().expectStatus().isNoContent();
+        insertedAuthority = null;
+
+        assertThat(userService.getAuthorities().collectList().block()).doesNotContain(authority.getName());
+    }
+
     @Test
     void createAuthorityWithExistingId() throws Exception {
         // Create the Authority with an existing ID
@@ -5,6 +5,8 @@ import static lms.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,9 +18,12 @@ import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import lms.IntegrationTest;
 import lms.domain.Courses;
+import lms.domain.Student;
 import lms.repository.CoursesRepository;
 import lms.repository.EntityManager;
 import lms.service.CoursesService;
+import lms.service.dto.BulkResultDTO;
+import lms.web.util.KeysetPaginationUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +32,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -74,6 +81,9 @@ class CoursesResourceIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private Courses courses;
 
     private Courses insertedCourses;
@@ -120,6 +130,9 @@ class CoursesResourceIT {
             insertedCourses = null;
         }
         deleteEntities(em);
+        StudentResourceIT.deleteEntities(em);
+        // The entities are deleted behind the service
+        cacheManager.getCache(CoursesRepository.COURSES_BY_ID_CACHE).clear();
     }
 
     @Test
@@ -145,6 +158,39 @@ class CoursesResourceIT {
         insertedCourses = returnedCourses;
     }
 
+    @Test
+    void saveCoursesInBulk() throws Exception {
+        // Initialize the database
+        insertedCourses = coursesRepository.save(courses).block();
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        Courses updatedCourses = createUpdatedEntity(em);
+        updatedCourses.setId(insertedCourses.getId());
+        Courses missingCourses = createEntity(em);
+        missingCourses.setId(Long.MAX_VALUE);
+        List<Courses> bulk = List.of(createEntity(em), updatedCourses, missingCourses);
+
+        List<BulkResultDTO> results = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(bulk))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(BulkResultDTO.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(results).extracting(BulkResultDTO::getStatus).containsExactly(
+            BulkResultDTO.Status.CREATED,
+            BulkResultDTO.Status.UPDATED,
+            BulkResultDTO.Status.FAILED
+        );
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        assertCoursesUpdatableFieldsEquals(updatedCourses, getPersistedCourses(insertedCourses));
+    }
+
     @Test
     void createCoursesWithExistingId() throws Exception {
         // Create the Courses with an existing ID
@@ -221,6 +267,207 @@ class CoursesResourceIT {
             .value(hasItem(DEFAULT_END_DATE.toString()));
     }
 
+    @Test
+    void getAllCoursesByCriteria() {
+        // Initialize the database
+        insertedCourses = coursesRepository.save(courses).block();
+
+        defaultCoursesShouldBeFound(
+            "start_date.greaterThanOrEqual=" + DEFAULT_START_DATE + "&course_name.startsWith=" + DEFAULT_COURSE_NAME.substring(0, 3)
+        );
+        defaultCoursesShouldBeFound("id.in=" + courses.getId() + ",0&studentId.specified=false");
+        defaultCoursesShouldNotBeFound("start_date.greaterThan=" + DEFAULT_START_DATE);
+        defaultCoursesShouldNotBeFound("course_name.startsWith=" + DEFAULT_COURSE_NAME.substring(1) + "_");
+        defaultCoursesShouldNotBeFound("studentId.specified=true");
+    }
+
+    private void defaultCoursesShouldBeFound(String filter) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?eagerload=false&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(courses.getId().intValue()));
+    }
+
+    private void defaultCoursesShouldNotBeFound(String filter) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?eagerload=false&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(not(hasItem(courses.getId().intValue())));
+    }
+
+    @Test
+    void searchCourses() {
+        // Initialize the database
+        insertedCourses = coursesRepository.save(courses).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/_search?q=" + DEFAULT_COURSE_NAME.substring(0, 5).toLowerCase())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(courses.getId().intValue()));
+    }
+
+    @Test
+    void suggestCoursesCreatedThroughTheService() throws Exception {
+        insertedCourses = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(courses))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Courses.class)
+            .returnResult()
+            .getResponseBody();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/_suggest?q=" + DEFAULT_COURSE_NAME.substring(0, 2))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(insertedCourses.getId().intValue()));
+    }
+
+    @Test
+    void getAllCoursesWithStudentOnlyWhenEagerLoaded() {
+        // Initialize the database
+        Student student = em.insert(StudentResourceIT.createEntity(em)).block();
+        insertedCourses = coursesRepository.save(courses.student(student)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?eagerload=true")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[?(@.id == %d)].student.student_name", courses.getId())
+            .value(hasItem(student.getStudent_name()));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?eagerload=false")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[?(@.id == %d)].studentId", courses.getId())
+            .value(hasItem(student.getId().intValue()))
+            .jsonPath("$[?(@.id == %d)].student", courses.getId())
+            .value(hasItem(nullValue()));
+    }
+
+    @Test
+    void getCoursesPagesWithCursor() {
+        // Initialize the database
+        Courses first = coursesRepository.save(createEntity(em).course_name("AAAAAAAAA1")).block();
+        Courses second = coursesRepository.save(createEntity(em).course_name("AAAAAAAAA2")).block();
+
+        // Get the first page of one course
+        String cursor = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&sort=course_name,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(HttpHeaders.LINK)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(first.getId().intValue()))
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+
+        // Get the second page with the returned cursor
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&cursor=" + cursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(second.getId().intValue()));
+    }
+
+    @Test
+    void getCoursesPageWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&cursor=invalid")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void exportCoursesAfterId() {
+        // Initialize the database
+        Courses first = coursesRepository.save(createEntity(em)).block();
+        Courses second = coursesRepository.save(createEntity(em).course_name("AAAAAAAAA2")).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export?format=csv&after={after}", first.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .isEqualTo(
+                "id,course_name,start_date,end_date,student_id\r\n" +
+                second.getId() +
+                ",AAAAAAAAA2," +
+                DEFAULT_START_DATE +
+                "," +
+                DEFAULT_END_DATE +
+                ",\r\n"
+            );
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export?format=ndjson&after={after}", first.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .expectBodyList(Courses.class)
+            .hasSize(1);
+    }
+
+    @Test
+    void exportCoursesWithUnsupportedFormat() {
+        webTestClient.get().uri(ENTITY_API_URL + "/export?format=xml").exchange().expectStatus().isBadRequest();
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllCoursesWithEagerRelationshipsIsEnabled() {
         when(coursesServiceMock.findAllWithEagerRelationships(any())).thenReturn(Flux.empty());
@@ -264,6 +511,90 @@ class CoursesResourceIT {
             .value(is(DEFAULT_END_DATE.toString()));
     }
 
+    @Test
+    void getCoursesFromTheCache() {
+        // Initialize the database
+        insertedCourses = coursesRepository.save(courses).block();
+
+        assertThat(getCoursesName(courses.getId())).isEqualTo(DEFAULT_COURSE_NAME);
+        assertThat(cacheManager.getCache(CoursesRepository.COURSES_BY_ID_CACHE).get(courses.getId())).isNotNull();
+
+        // Changed behind the service, so the cached courses are still served
+        coursesRepository.save(courses.course_name(UPDATED_COURSE_NAME)).block();
+
+        assertThat(getCoursesName(courses.getId())).isEqualTo(DEFAULT_COURSE_NAME);
+    }
+
+    @Test
+    void putCoursesEvictsTheCachedCourses() throws Exception {
+        // Initialize the database and the cache
+        insertedCourses = coursesRepository.save(courses).block();
+        getCoursesName(courses.getId());
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, courses.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(courses.course_name(UPDATED_COURSE_NAME)))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(getCoursesName(courses.getId())).isEqualTo(UPDATED_COURSE_NAME);
+    }
+
+    @Test
+    void patchCoursesEvictsTheCachedCourses() throws Exception {
+        // Initialize the database and the cache
+        insertedCourses = coursesRepository.save(courses).block();
+        getCoursesName(courses.getId());
+
+        Courses partialUpdatedCourses = new Courses().course_name(UPDATED_COURSE_NAME);
+        partialUpdatedCourses.setId(courses.getId());
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, courses.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(om.writeValueAsBytes(partialUpdatedCourses))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(getCoursesName(courses.getId())).isEqualTo(UPDATED_COURSE_NAME);
+    }
+
+    @Test
+    void deleteCoursesEvictsTheCachedCourses() {
+        // Initialize the database and the cache
+        insertedCourses = coursesRepository.save(courses).block();
+        getCoursesName(courses.getId());
+
+        webTestClient.delete().uri(ENTITY_API_URL_ID, courses.getId()).exchange().expectStatus().isNoContent();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, courses.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNotFound();
+        insertedCourses = null;
+    }
+
+    private String getCoursesName(Long id) {
+        return webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, id)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Courses.class)
+            .returnResult()
+            .getResponseBody()
+            .getCourse_name();
+    }
+
     @Test
     void getNonExistingCourses() {
         // Get the courses
@@ -12,7 +12,9 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import lms.IntegrationTest;
+import lms.domain.Courses;
 import lms.domain.Student;
+import lms.repository.CoursesRepository;
 import lms.repository.EntityManager;
 import lms.repository.StudentRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -20,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -56,6 +59,12 @@ class StudentResourceIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private CoursesRepository coursesRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private Student student;
 
     private Student insertedStudent;
@@ -97,11 +106,15 @@ class StudentResourceIT {
 
     @AfterEach
     public void cleanup() {
+        CoursesResourceIT.deleteEntities(em);
         if (insertedStudent != null) {
             studentRepository.delete(insertedStudent).block();
             insertedStudent = null;
         }
         deleteEntities(em);
+        // The entities are deleted behind the services
+        cacheManager.getCache(StudentRepository.STUDENTS_BY_ID_CACHE).clear();
+        cacheManager.getCache(CoursesRepository.COURSES_BY_ID_CACHE).clear();
     }
 
     @Test
@@ -225,6 +238,80 @@ class StudentResourceIT {
             .value(is(DEFAULT_STUDENT_NAME));
     }
 
+    @Test
+    void getStudentFromTheCacheUntilUpdated() throws Exception {
+        // Initialize the database
+        insertedStudent = studentRepository.save(student).block();
+
+        assertThat(getStudentName(student.getId())).isEqualTo(DEFAULT_STUDENT_NAME);
+        assertThat(cacheManager.getCache(StudentRepository.STUDENTS_BY_ID_CACHE).get(student.getId())).isNotNull();
+
+        // Changed behind the service, so the cached student is still served
+        studentRepository.save(student.student_name(UPDATED_STUDENT_NAME)).block();
+        assertThat(getStudentName(student.getId())).isEqualTo(DEFAULT_STUDENT_NAME);
+
+        Student partialUpdatedStudent = new Student().reg_no(UPDATED_REG_NO);
+        partialUpdatedStudent.setId(student.getId());
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, student.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(om.writeValueAsBytes(partialUpdatedStudent))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(getStudentName(student.getId())).isEqualTo(UPDATED_STUDENT_NAME);
+    }
+
+    @Test
+    void putStudentEvictsTheCachedCoursesOfTheStudent() throws Exception {
+        // Initialize the database, and cache the courses along with its student
+        insertedStudent = studentRepository.save(student).block();
+        Courses courses = coursesRepository.save(CoursesResourceIT.createEntity(em).student(student)).block();
+        assertThat(getCoursesStudentName(courses.getId())).isEqualTo(DEFAULT_STUDENT_NAME);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, student.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(student.student_name(UPDATED_STUDENT_NAME)))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(getCoursesStudentName(courses.getId())).isEqualTo(UPDATED_STUDENT_NAME);
+    }
+
+    private String getStudentName(Long id) {
+        return webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, id)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Student.class)
+            .returnResult()
+            .getResponseBody()
+            .getStudent_name();
+    }
+
+    private String getCoursesStudentName(Long coursesId) {
+        return webTestClient
+            .get()
+            .uri("/api/courses/{id}", coursesId)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Courses.class)
+            .returnResult()
+            .getResponseBody()
+            .getStudent()
+            .getStudent_name();
+    }
+
     @Test
     void getNonExistingStudent() {
         // Get the student
@@ -272,6 +272,37 @@ class UserResourceIT {
         assertThat(foundUser.getLangKey()).isEqualTo(DEFAULT_LANGKEY);
     }
 
+    @Test
+    void getAllUsersPagedAndSortedInDatabase() {
+        // Initialize the database
+        User firstUser = initTestUser(em);
+        firstUser.setLogin("aaaa");
+        firstUser.setEmail("aaaa@localhost");
+        User secondUser = initTestUser(em);
+        secondUser.setLogin("aaab");
+        secondUser.setEmail("aaab@localhost");
+        userRepository.save(firstUser).block();
+        User savedSecondUser = userRepository.save(secondUser).block();
+        userRepository.saveUserAuthority(savedSecondUser.getId(), AuthoritiesConstants.USER).block();
+
+        // Get the second page of one user, sorted by login
+        List<AdminUserDTO> foundUsers = webTestClient
+            .get()
+            .uri("/api/admin/users?sort=login,asc&page=1&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(foundUsers).hasSize(1);
+        assertThat(foundUsers.get(0).getLogin()).isEqualTo("aaab");
+        assertThat(foundUsers.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+    }
+
     @Test
     void getUser() {
         // Initialize the database